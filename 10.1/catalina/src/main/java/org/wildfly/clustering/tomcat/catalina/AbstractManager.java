@@ -16,7 +16,9 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -62,11 +64,33 @@ import org.wildfly.clustering.tomcat.SessionPersistenceGranularity;
 public abstract class AbstractManager extends ManagerBase implements DistributedManager {
 
 	private final Deque<Runnable> stopTasks = new LinkedList<>();
+	private final AtomicLong topologyId = new AtomicLong();
 
-	private volatile CatalinaManager manager;
+	private volatile DistributableManager manager;
 	private volatile SessionAttributePersistenceStrategy persistenceStrategy = SessionPersistenceGranularity.SESSION.get();
 	private volatile SessionMarshallerFactory marshallerFactory = SessionMarshallerFactory.JBOSS;
 	private volatile Optional<Duration> idleTimeout = Optional.empty();
+	private volatile Optional<Duration> drainTimeout = Optional.empty();
+	private volatile int passivationBatchSize = 100;
+	private volatile Optional<IdleSessionPassivator> passivator = Optional.empty();
+	private volatile int preloadThreads = 0;
+	private volatile int preloadRate = 0;
+	private volatile Optional<SessionPreloader> preloader = Optional.empty();
+	private volatile int expirationListenerThreads = 0;
+	private volatile int expirationListenerQueueLength = 1000;
+	private volatile Optional<SessionExpirationDispatcher> expirationDispatcher = Optional.empty();
+	private volatile int expirationRate = 0;
+	private volatile int expirationBurst = 0;
+	private volatile Optional<ExpirationRateLimiter> expirationRateLimiter = Optional.empty();
+	private volatile boolean attributeChangeDetection = false;
+	private volatile Set<String> immutableClasses = Set.of();
+	private volatile Set<String> immutablePackages = Set.of();
+	private volatile Optional<AttributeChangeDetector> attributeChangeDetector = Optional.empty();
+	private volatile Optional<ClassMarshallability> marshallability = Optional.empty();
+	private volatile int commitRetries = 1;
+	private volatile Optional<CommitConflictHandler> commitConflictHandler = Optional.empty();
+	private volatile Optional<Duration> sessionLoadTimeout = Optional.empty();
+	private volatile Optional<SessionLoadMonitor> sessionLoadMonitor = Optional.empty();
 	private final Valve cookieValve = new SessionCookieValve();
 
 	/**
@@ -115,6 +139,123 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 		this.setMarshallerFactory(SessionMarshallerFactory.valueOf(name));
 	}
 
+	/**
+	 * Specifies a comma-separated list of classes whose instances, including those of any subclasses, should be treated as immutable session attributes.
+	 * An entry ending with ".*" denotes a package, including its subpackages, whose classes should be treated as immutable.
+	 * @param names a comma-separated list of class names and package patterns
+	 */
+	public void setImmutableClasses(String names) {
+		List<String> entries = Stream.of(names.split(",")).map(String::strip).filter(Predicate.not(String::isEmpty)).collect(Collectors.toList());
+		this.immutableClasses = entries.stream().filter(Predicate.not(name -> name.endsWith(".*"))).collect(Collectors.toUnmodifiableSet());
+		this.immutablePackages = entries.stream().filter(name -> name.endsWith(".*")).map(name -> name.substring(0, name.length() - 2)).collect(Collectors.toUnmodifiableSet());
+	}
+
+	/**
+	 * Specifies whether writes of mutable session attributes should be suppressed if their marshalled form did not change.
+	 * @param enabled true, if attribute change detection should be enabled, false otherwise.
+	 */
+	public void setAttributeChangeDetection(boolean enabled) {
+		this.attributeChangeDetection = enabled;
+	}
+
+	/**
+	 * Returns the number of writes of mutable session attributes suppressed because their marshalled form did not change.
+	 * @return the number of suppressed attribute writes
+	 */
+	public long getSuppressedAttributeWriteCount() {
+		return this.attributeChangeDetector.map(AttributeChangeDetector::getSuppressedCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of writes of mutable session attributes triggered by a change to their marshalled form.
+	 * @return the number of detected attribute changes
+	 */
+	public long getDetectedAttributeChangeCount() {
+		return this.attributeChangeDetector.map(AttributeChangeDetector::getDetectedCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of marshallability checks of session attributes.
+	 * @return the number of marshallability checks
+	 */
+	public long getMarshallabilityCheckCount() {
+		return this.marshallability.map(ClassMarshallability::getCheckCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of marshallability checks of session attributes not resolved via a decision cached per class.
+	 * @return the number of marshallability cache misses
+	 */
+	public long getMarshallabilityCacheMissCount() {
+		return this.marshallability.map(ClassMarshallability::getMissCount).orElse(0L);
+	}
+
+	/**
+	 * Specifies the maximum number of times to retry the commit of a session that conflicted with a concurrent request, for managers that detect such conflicts.
+	 * @param retries a number of retries
+	 */
+	public void setCommitRetries(int retries) {
+		this.commitRetries = retries;
+	}
+
+	/**
+	 * Returns the number of session commits that conflicted with a concurrent request.
+	 * @return the number of commit conflicts
+	 */
+	public long getCommitConflictCount() {
+		return this.commitConflictHandler.map(CommitConflictHandler::getConflictCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of commit conflicts recovered via retry.
+	 * @return the number of recovered commit conflicts
+	 */
+	public long getRecoveredCommitConflictCount() {
+		return this.commitConflictHandler.map(CommitConflictHandler::getRecoveredCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of commit conflicts whose changes could not be replayed, and were therefore discarded.
+	 * @return the number of lost session writes
+	 */
+	public long getLostCommitCount() {
+		return this.commitConflictHandler.map(CommitConflictHandler::getLostCount).orElse(0L);
+	}
+
+	/**
+	 * Specifies the maximum duration, in ISO-8601 format, that a request may wait for its session to load, including any wait to acquire the lock of the session, or for a remote fetch of the session, after which the request fails.
+	 * The timeouts of the session cache are unaffected, thus a load that outlives this duration still completes in the background, after which its session is closed.
+	 * By default, a request waits for as long as permitted by the configuration of the session cache.
+	 * @param duration a duration in ISO-8601 format
+	 */
+	public void setSessionLoadTimeout(String duration) {
+		this.sessionLoadTimeout = Optional.of(Duration.parse(duration));
+	}
+
+	/**
+	 * Returns a histogram of the durations of session loads, including any time spent waiting to acquire the lock of a session.
+	 * @return a histogram of session load durations
+	 */
+	public String getSessionLoadTimeHistogram() {
+		return this.sessionLoadMonitor.map(SessionLoadMonitor::getHistogram).orElse("");
+	}
+
+	/**
+	 * Returns the maximum duration, in milliseconds, of a session load.
+	 * @return the maximum duration of a session load
+	 */
+	public long getMaxSessionLoadTime() {
+		return this.sessionLoadMonitor.map(SessionLoadMonitor::getMaxTime).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of session loads that were not completed within the session load timeout.
+	 * @return the number of session load timeouts
+	 */
+	public long getSessionLoadTimeoutCount() {
+		return this.sessionLoadMonitor.map(SessionLoadMonitor::getTimeoutCount).orElse(0L);
+	}
+
 	/**
 	 * Specifies the duration, in ISO-8601 format, following last access after which a session should be considered idle.
 	 * @param duration a duration in ISO-8601 format
@@ -123,6 +264,174 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 		this.idleTimeout = Optional.of(Duration.parse(duration));
 	}
 
+	/**
+	 * Specifies the maximum duration, in ISO-8601 format, to wait for in-flight requests to complete when this manager stops.
+	 * By default, this manager waits indefinitely.
+	 * @param duration a duration in ISO-8601 format
+	 */
+	public void setDrainTimeout(String duration) {
+		this.drainTimeout = Optional.of(Duration.parse(duration));
+	}
+
+	/**
+	 * Returns the number of requests currently accessing a session of this manager.
+	 * @return the number of requests currently accessing a session of this manager.
+	 */
+	public int getInFlightRequestCount() {
+		DistributableManager manager = this.manager;
+		return (manager != null) ? manager.getInFlightRequestCount() : 0;
+	}
+
+	/**
+	 * Specifies the maximum number of idle sessions to passivate per background process invocation.
+	 * Idle sessions are only passivated proactively if an idle timeout was specified and this manager supports passivation.
+	 * @param batchSize the maximum number of idle sessions to passivate per background process invocation.
+	 */
+	public void setPassivationBatchSize(int batchSize) {
+		this.passivationBatchSize = batchSize;
+	}
+
+	/**
+	 * Returns the number of idle sessions passivated by the background process of this manager.
+	 * @return the number of idle sessions passivated by the background process of this manager.
+	 */
+	public long getPassivatedSessionCount() {
+		return this.passivator.map(IdleSessionPassivator::getPassivatedCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the total duration, in milliseconds, spent by the background process of this manager passivating idle sessions.
+	 * @return the total duration, in milliseconds, spent passivating idle sessions.
+	 */
+	public long getPassivationTime() {
+		return this.passivator.map(IdleSessionPassivator::getPassivationTime).orElse(0L);
+	}
+
+	/**
+	 * Specifies the number of threads with which to preload the sessions owned by this member following startup.
+	 * @param threads the number of threads with which to preload sessions, or 0, to disable preloading.
+	 */
+	public void setPreloadThreads(int threads) {
+		this.preloadThreads = threads;
+	}
+
+	/**
+	 * Specifies the maximum number of sessions to preload per second following startup.
+	 * @param rate the maximum number of sessions to preload per second, or 0, if unlimited.
+	 */
+	public void setPreloadRate(int rate) {
+		this.preloadRate = rate;
+	}
+
+	/**
+	 * Specifies the number of threads with which to notify listeners of expired sessions.
+	 * Notifications for different sessions are processed in parallel, while notifications for the same session are processed in order.
+	 * @param threads the number of threads with which to notify listeners of expired sessions, or 0, to notify listeners on the expiring thread.
+	 */
+	public void setExpirationListenerThreads(int threads) {
+		this.expirationListenerThreads = threads;
+	}
+
+	/**
+	 * Specifies the maximum number of pending expiration notifications per expiration listener thread, beyond which the expiring thread blocks.
+	 * @param length the maximum number of pending expiration notifications per thread
+	 */
+	public void setExpirationListenerQueueLength(int length) {
+		this.expirationListenerQueueLength = length;
+	}
+
+	/**
+	 * Returns the number of expiration notifications pending dispatch to listeners.
+	 * @return the number of pending expiration notifications
+	 */
+	public int getExpirationListenerQueueSize() {
+		return this.expirationDispatcher.map(SessionExpirationDispatcher::getQueueSize).orElse(0);
+	}
+
+	/**
+	 * Returns the number of expiration notifications dispatched to listeners by the expiration listener threads.
+	 * @return the number of dispatched expiration notifications
+	 */
+	public long getExpirationListenerDispatchedCount() {
+		return this.expirationDispatcher.map(SessionExpirationDispatcher::getDispatchedCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the number of times an expiring thread was blocked because the queue of an expiration listener thread was full.
+	 * @return the number of times an expiring thread was blocked
+	 */
+	public long getExpirationListenerBlockedCount() {
+		return this.expirationDispatcher.map(SessionExpirationDispatcher::getBlockedCount).orElse(0L);
+	}
+
+	/**
+	 * Specifies the maximum number of expiration notifications to dispatch per second, e.g. to spread the notifications of a mass expiration following a restart over time.
+	 * If no expiration listener threads are configured, notifications are dispatched by a single thread.
+	 * @param rate the maximum number of expiration notifications to dispatch per second, or 0, if unlimited.
+	 */
+	public void setExpirationRate(int rate) {
+		this.expirationRate = rate;
+	}
+
+	/**
+	 * Specifies the maximum number of expiration notifications that may be dispatched without delay, following a period without expirations.
+	 * @param burst the maximum number of expiration notifications that may be dispatched without delay, or 0, to use the expiration rate.
+	 */
+	public void setExpirationBurst(int burst) {
+		this.expirationBurst = burst;
+	}
+
+	/**
+	 * Returns the number of expiration notifications delayed due to the expiration rate limit.
+	 * @return the number of delayed expiration notifications
+	 */
+	public long getThrottledExpirationCount() {
+		return this.expirationRateLimiter.map(ExpirationRateLimiter::getThrottledCount).orElse(0L);
+	}
+
+	/**
+	 * Returns the total duration, in milliseconds, that expiration notifications were delayed due to the expiration rate limit.
+	 * @return the total delay, in milliseconds
+	 */
+	public long getExpirationThrottleTime() {
+		return this.expirationRateLimiter.map(ExpirationRateLimiter::getThrottleTime).orElse(0L);
+	}
+
+	/**
+	 * Returns the identifiers of the sessions to preload following startup, i.e. those sessions whose route references this member.
+	 * This is invoked after {@link #createSessionManagerFactory(SessionManagerFactoryConfiguration, String, Consumer)}.
+	 * @return a list of session identifiers
+	 */
+	protected List<String> getPreloadIdentifiers() {
+		return List.of();
+	}
+
+	/**
+	 * Returns the passivation of sessions held in local memory, if supported by this manager.
+	 * This is invoked after {@link #createSessionManagerFactory(SessionManagerFactoryConfiguration, String, Consumer)}.
+	 * @return an optional session passivation
+	 */
+	protected Optional<SessionPassivation> getPassivation() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns a predicate that detects exceptions signalling that the commit of a session conflicted with that of a concurrent request, if such conflicts are possible for this manager.
+	 * This is invoked after {@link #createSessionManagerFactory(SessionManagerFactoryConfiguration, String, Consumer)}.
+	 * @return an optional predicate that returns true if a given exception signals a commit conflict, false otherwise.
+	 */
+	protected Optional<Predicate<Throwable>> getCommitConflict() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Indicates that the topology on which session affinity is computed has changed.
+	 * Any session routes previously computed via the JVM route provider will be recomputed on next use.
+	 */
+	protected void topologyChanged() {
+		this.topologyId.incrementAndGet();
+	}
+
 	/**
 	 * Creates a tuple containing a session manager factory and JVM route provider.
 	 * @param configuration the configuration the session manager factory
@@ -154,6 +463,7 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 		OptionalInt maxActiveSessions = IntStream.of(this.getMaxActiveSessions()).filter(IntPredicate.POSITIVE).findFirst();
 		Optional<Duration> idleTimeout = this.idleTimeout;
 		SessionAttributePersistenceStrategy strategy = this.persistenceStrategy;
+		Optional<Duration> drainTimeout = this.drainTimeout;
 
 		ClassLoader loader = context.getLoader().getClassLoader();
 		ByteBufferMarshaller marshaller = this.marshallerFactory.apply(servletContext::getInitParameter, loader);
@@ -162,7 +472,18 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 		for (Immutability loadedImmutability : ServiceLoader.load(Immutability.class, loader)) {
 			loadedImmutabilities.add(loadedImmutability);
 		}
-		Immutability immutability = Immutability.composite(Stream.concat(Stream.of(Immutability.getDefault()), loadedImmutabilities.stream()).collect(Collectors.toList()));
+		// Memoize per-class decisions, since this is evaluated on every attribute access
+		Immutability immutability = new ClassImmutability(Immutability.getDefault(), loadedImmutabilities, this.immutableClasses, this.immutablePackages);
+		Optional<AttributeChangeDetector> attributeChangeDetector = this.attributeChangeDetection ? Optional.of(new AttributeChangeDetector(marshaller, immutability)) : Optional.empty();
+		this.attributeChangeDetector = attributeChangeDetector;
+		stopTasks.accept(() -> this.attributeChangeDetector = Optional.empty());
+
+		// Scoped to the class loader of this web application, thus discarded on reload
+		ClassMarshallability marshallability = new ClassMarshallability(marshaller);
+		this.marshallability = Optional.of(marshallability);
+		stopTasks.accept(() -> this.marshallability = Optional.empty());
+		// With change detection, reads of attributes with a recorded baseline no longer imply writes
+		Immutability sessionImmutability = attributeChangeDetector.map(AttributeChangeDetector::getSessionImmutability).orElse(immutability);
 
 		SessionManagerFactoryConfiguration<CatalinaSessionContext> sessionManagerFactoryConfig = new SessionManagerFactoryConfiguration<>() {
 			@Override
@@ -202,7 +523,7 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 
 			@Override
 			public Immutability getImmutability() {
-				return immutability;
+				return sessionImmutability;
 			}
 
 			@Override
@@ -214,13 +535,47 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 		Map.Entry<SessionManagerFactory<ServletContext, CatalinaSessionContext>, UnaryOperator<String>> entry = this.createSessionManagerFactory(sessionManagerFactoryConfig, Objects.requireNonNull(engine.getJvmRoute()), stopTasks);
 		SessionManagerFactory<ServletContext, CatalinaSessionContext> managerFactory = entry.getKey();
 		UnaryOperator<String> affinity = entry.getValue();
+		AtomicLong topologyId = this.topologyId;
 		stopTasks.accept(managerFactory::close);
 
+		int passivationBatchSize = this.passivationBatchSize;
+		Optional<IdleSessionPassivator> passivator = idleTimeout.flatMap(threshold -> this.getPassivation().map(passivation -> new IdleSessionPassivator(threshold, passivationBatchSize, passivation)));
+		this.passivator = passivator;
+		stopTasks.accept(() -> this.passivator = Optional.empty());
+
+		int commitRetries = this.commitRetries;
+		Optional<CommitConflictHandler> commitConflictHandler = this.getCommitConflict().map(conflict -> new CommitConflictHandler(conflict, commitRetries));
+		this.commitConflictHandler = commitConflictHandler;
+		stopTasks.accept(() -> this.commitConflictHandler = Optional.empty());
+
+		SessionLoadMonitor sessionLoadMonitor = new SessionLoadMonitor(this.sessionLoadTimeout);
+		this.sessionLoadMonitor = Optional.of(sessionLoadMonitor);
+		stopTasks.accept(() -> this.sessionLoadMonitor = Optional.empty());
+
 		Contextualizer contextualizer = Contextualizer.withContextProvider(ThreadContextClassLoaderReference.CURRENT.provide(context.getLoader().getClassLoader()));
 		ContainerProvider<ServletContext, HttpSession, HttpSessionActivationListener, CatalinaSessionContext> provider = new ServletContainerProvider<>();
 		AtomicReference<SessionManager<CatalinaSessionContext>> sessionManagerReference = new AtomicReference<>();
 		Consumer<ImmutableSession> destroyNotifier = session -> CatalinaSessionEventNotifier.Lifecycle.DESTROY.accept(this, new HttpSessionEvent(provider.getSession(sessionManagerReference.getPlain(), session, this.getContext().getServletContext())));
 		Supplier<String> identifierFactory = new CatalinaIdentifierFactory(this.getSessionIdGenerator());
+		java.util.function.Consumer<ImmutableSession> expirationListener = contextualizer.contextualize(destroyNotifier);
+		int expirationRate = this.expirationRate;
+		if (expirationRate > 0) {
+			int expirationBurst = this.expirationBurst;
+			ExpirationRateLimiter limiter = new ExpirationRateLimiter(expirationListener, expirationRate, (expirationBurst > 0) ? expirationBurst : expirationRate);
+			this.expirationRateLimiter = Optional.of(limiter);
+			stopTasks.accept(() -> this.expirationRateLimiter = Optional.empty());
+			expirationListener = limiter;
+		}
+		// Rate limited notifications are delayed by a dispatch lane, never by the expiring thread
+		int expirationListenerThreads = (expirationRate > 0) ? Math.max(1, this.expirationListenerThreads) : this.expirationListenerThreads;
+		if (expirationListenerThreads > 0) {
+			SessionExpirationDispatcher dispatcher = new SessionExpirationDispatcher(expirationListener, expirationListenerThreads, this.expirationListenerQueueLength);
+			this.expirationDispatcher = Optional.of(dispatcher);
+			stopTasks.accept(() -> this.expirationDispatcher = Optional.empty());
+			stopTasks.accept(dispatcher::close);
+			expirationListener = dispatcher;
+		}
+		java.util.function.Consumer<ImmutableSession> sessionExpirationListener = expirationListener;
 
 		SessionManagerConfiguration<ServletContext> sessionManagerConfiguration = new SessionManagerConfiguration<>() {
 			@Override
@@ -240,7 +595,7 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 
 			@Override
 			public Consumer<ImmutableSession> getExpirationListener() {
-				return Consumer.<ImmutableSession>of().andThen(contextualizer.contextualize(destroyNotifier));
+				return Consumer.<ImmutableSession>of().andThen(sessionExpirationListener);
 			}
 		};
 		sessionManagerReference.setPlain(managerFactory.createSessionManager(sessionManagerConfiguration));
@@ -253,7 +608,12 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 
 			@Override
 			public Predicate<Object> getMarshallability() {
-				return marshaller;
+				return marshallability;
+			}
+
+			@Override
+			public Immutability getImmutability() {
+				return sessionImmutability;
 			}
 
 			@Override
@@ -270,9 +630,46 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 			public UnaryOperator<String> getAffinity() {
 				return affinity;
 			}
+
+			@Override
+			public LongSupplier getTopologyId() {
+				return topologyId::get;
+			}
+
+			@Override
+			public Optional<Duration> getDrainTimeout() {
+				return drainTimeout;
+			}
+
+			@Override
+			public Optional<AttributeChangeDetector> getAttributeChangeDetector() {
+				return attributeChangeDetector;
+			}
+
+			@Override
+			public Optional<CommitConflictHandler> getCommitConflictHandler() {
+				return commitConflictHandler;
+			}
+
+			@Override
+			public SessionLoadMonitor getSessionLoadMonitor() {
+				return sessionLoadMonitor;
+			}
+
+			@Override
+			public Optional<IdleSessionPassivator> getIdleSessionPassivator() {
+				return passivator;
+			}
 		});
 		this.manager.start();
 
+		int preloadThreads = this.preloadThreads;
+		if (preloadThreads > 0) {
+			SessionPreloader preloader = new SessionPreloader(sessionManagerReference.getPlain(), contextualizer, preloadThreads, this.preloadRate);
+			this.preloader = Optional.of(preloader);
+			preloader.preload(this.getPreloadIdentifiers());
+		}
+
 		this.setState(LifecycleState.STARTING);
 	}
 
@@ -280,6 +677,10 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 	protected void stopInternal() throws LifecycleException {
 		this.setState(LifecycleState.STOPPING);
 
+		// Abort any incomplete preloading
+		this.preloader.ifPresent(SessionPreloader::close);
+		this.preloader = Optional.empty();
+
 		Optional.ofNullable(this.manager).ifPresent(CatalinaManager::stop);
 
 		Iterable<Runnable> tasks = this.stopTasks::descendingIterator;
@@ -304,12 +705,14 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 
 	@Override
 	public Session createSession(String internalId) {
-		return this.manager.createSession(Optional.ofNullable(internalId).map(AbstractManager::parseSessionId).orElseGet(this.manager.getSessionManager().getIdentifierFactory()));
+		String id = Optional.ofNullable(internalId).map(AbstractManager::parseSessionId).orElseGet(this.manager.getSessionManager().getIdentifierFactory());
+		return this.manager.createSession(id);
 	}
 
 	@Override
 	public Session findSession(String internalId) throws IOException {
-		return this.manager.findSession(parseSessionId(internalId));
+		String id = parseSessionId(internalId);
+		return this.manager.findSession(id);
 	}
 
 	/**
@@ -354,7 +757,8 @@ public abstract class AbstractManager extends ManagerBase implements Distributed
 
 	@Override
 	public void backgroundProcess() {
-		// Do nothing
+		// Proactively passivate idle sessions, rather than waiting for eviction
+		this.passivator.ifPresent(Runnable::run);
 	}
 
 	@Override
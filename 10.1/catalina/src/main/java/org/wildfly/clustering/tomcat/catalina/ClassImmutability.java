@@ -0,0 +1,112 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.wildfly.clustering.server.immutable.Immutability;
+
+/**
+ * Immutability of session attributes that memoizes, per class, those decisions that do not depend on a specific instance.
+ * The immutability of containers, e.g. collections, depends on their contents, and is therefore never memoized.
+ * Immutabilities provided by the application are always consulted for objects not known to be immutable, since their decisions may depend on a specific instance.
+ * @author Paul Ferraro
+ */
+public class ClassImmutability implements Immutability {
+	private static final List<Class<?>> CONTAINER_TYPES = List.of(Collection.class, Map.class, Map.Entry.class, Optional.class, Object[].class);
+
+	private final Immutability defaultImmutability;
+	private final Optional<Immutability> applicationImmutability;
+	private final Immutability immutability;
+	private final Set<String> classNames;
+	private final Set<String> packageNames;
+	private final ClassValue<Decision> decisions = new ClassValue<>() {
+		@Override
+		protected Decision computeValue(Class<?> targetClass) {
+			return new Decision(isContainer(targetClass), ClassImmutability.this.isDeclared(targetClass) ? Boolean.TRUE : null);
+		}
+	};
+
+	/**
+	 * Creates a class immutability.
+	 * @param defaultImmutability the default immutability, whose decisions are memoized per class
+	 * @param applicationImmutabilities the immutabilities provided by the application
+	 * @param classNames the names of immutable classes, including their subclasses
+	 * @param packageNames the names of packages, including their subpackages, containing immutable classes
+	 */
+	public ClassImmutability(Immutability defaultImmutability, List<Immutability> applicationImmutabilities, Set<String> classNames, Set<String> packageNames) {
+		this.defaultImmutability = defaultImmutability;
+		this.applicationImmutability = applicationImmutabilities.isEmpty() ? Optional.empty() : Optional.of(Immutability.composite(applicationImmutabilities));
+		this.immutability = applicationImmutabilities.isEmpty() ? defaultImmutability : Immutability.composite(Stream.concat(Stream.of(defaultImmutability), applicationImmutabilities.stream()).collect(Collectors.toList()));
+		this.classNames = classNames;
+		this.packageNames = packageNames;
+	}
+
+	@Override
+	public boolean test(Object object) {
+		if (object == null) return true;
+		Decision decision = this.decisions.get(object.getClass());
+		Boolean immutable = decision.immutable;
+		if (immutable == Boolean.TRUE) return true;
+		if (decision.container) {
+			return this.immutability.test(object);
+		}
+		if (immutable == null) {
+			immutable = Boolean.valueOf(this.defaultImmutability.test(object));
+			decision.immutable = immutable;
+		}
+		// The memoized decision already covers the default immutability
+		return immutable.booleanValue() || (this.applicationImmutability.isPresent() && this.applicationImmutability.get().test(object));
+	}
+
+	private boolean isDeclared(Class<?> targetClass) {
+		if (this.isDeclaredClass(targetClass)) return true;
+		String packageName = targetClass.getPackageName();
+		for (String name : this.packageNames) {
+			if (packageName.equals(name) || packageName.startsWith(name + '.')) return true;
+		}
+		return false;
+	}
+
+	private boolean isDeclaredClass(Class<?> targetClass) {
+		if (this.classNames.isEmpty()) return false;
+		for (Class<?> superClass = targetClass; superClass != null; superClass = superClass.getSuperclass()) {
+			if (this.classNames.contains(superClass.getName())) return true;
+			for (Class<?> interfaceClass : superClass.getInterfaces()) {
+				if (this.isDeclaredClass(interfaceClass)) return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether the specified class is a container, whose properties depend on its contents.
+	 * @param targetClass a class
+	 * @return true, if the specified class is a container, false otherwise.
+	 */
+	static boolean isContainer(Class<?> targetClass) {
+		for (Class<?> containerType : CONTAINER_TYPES) {
+			if (containerType.isAssignableFrom(targetClass)) return true;
+		}
+		return false;
+	}
+
+	private static class Decision {
+		final boolean container;
+		// Benign race, since decisions are deterministic
+		volatile Boolean immutable;
+
+		Decision(boolean container, Boolean immutable) {
+			this.container = container;
+			this.immutable = immutable;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.clustering.function.Predicate;
+
+/**
+ * Marshallability of session attributes that memoizes the decision of a marshaller per class.
+ * The marshallability of containers, e.g. collections, depends on their contents, and is therefore never memoized.
+ * Since decisions are keyed by class, classes of a reloaded web application never observe the decisions for the classes of its previous class loader.
+ * @author Paul Ferraro
+ */
+public class ClassMarshallability implements Predicate<Object> {
+
+	private final java.util.function.Predicate<Object> marshallability;
+	private final LongAdder checks = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final ClassValue<Decision> decisions = new ClassValue<>() {
+		@Override
+		protected Decision computeValue(Class<?> targetClass) {
+			return new Decision(ClassImmutability.isContainer(targetClass));
+		}
+	};
+
+	/**
+	 * Creates a class marshallability.
+	 * @param marshallability the marshallability predicate of a marshaller
+	 */
+	public ClassMarshallability(java.util.function.Predicate<Object> marshallability) {
+		this.marshallability = marshallability;
+	}
+
+	@Override
+	public boolean test(Object object) {
+		this.checks.increment();
+		if (object == null) return true;
+		Decision decision = this.decisions.get(object.getClass());
+		if (decision.container) {
+			this.misses.increment();
+			return this.marshallability.test(object);
+		}
+		Boolean marshallable = decision.marshallable;
+		if (marshallable == null) {
+			this.misses.increment();
+			marshallable = Boolean.valueOf(this.marshallability.test(object));
+			decision.marshallable = marshallable;
+		}
+		return marshallable.booleanValue();
+	}
+
+	/**
+	 * Returns the number of marshallability checks.
+	 * @return the number of marshallability checks
+	 */
+	public long getCheckCount() {
+		return this.checks.sum();
+	}
+
+	/**
+	 * Returns the number of marshallability checks that could not be resolved via a memoized decision.
+	 * @return the number of marshallability checks delegated to the marshaller
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	private static class Decision {
+		final boolean container;
+		// Benign race, since decisions are deterministic
+		volatile Boolean marshallable;
+
+		Decision(boolean container) {
+			this.container = container;
+		}
+	}
+}
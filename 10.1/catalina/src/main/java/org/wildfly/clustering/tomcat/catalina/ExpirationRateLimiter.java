@@ -0,0 +1,93 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.session.ImmutableSession;
+
+/**
+ * Limits the rate at which expiration listeners are notified using a token bucket, tracked as the time at which the next token becomes available.
+ * Intended to be applied by the lanes of a {@link SessionExpirationDispatcher}, i.e. after the hand-off from the expiring thread, which must never be delayed.
+ * @author Paul Ferraro
+ */
+public class ExpirationRateLimiter implements Consumer<ImmutableSession> {
+
+	private final java.util.function.Consumer<ImmutableSession> listener;
+	private final long interval;
+	private final long tolerance;
+	private final LongAdder throttled = new LongAdder();
+	private final LongAdder throttleTime = new LongAdder();
+	// The time at which the most recently reserved token becomes available
+	private final AtomicLong schedule;
+
+	/**
+	 * Creates an expiration rate limiter.
+	 * @param listener the expiration listener
+	 * @param rate the maximum number of expiration notifications per second
+	 * @param burst the maximum number of expiration notifications without delay, following a period of inactivity
+	 */
+	public ExpirationRateLimiter(java.util.function.Consumer<ImmutableSession> listener, int rate, int burst) {
+		this.listener = listener;
+		this.interval = Math.max(1L, TimeUnit.SECONDS.toNanos(1) / rate);
+		this.tolerance = this.interval * Math.max(1, burst);
+		// Start with a full bucket
+		this.schedule = new AtomicLong(System.nanoTime() - this.tolerance);
+	}
+
+	@Override
+	public void accept(ImmutableSession session) {
+		long delay = this.reserve();
+		if (delay > 0L) {
+			this.throttled.increment();
+			long start = System.nanoTime();
+			long deadline = start + delay;
+			long remaining = delay;
+			while ((remaining > 0L) && !Thread.currentThread().isInterrupted()) {
+				LockSupport.parkNanos(this, remaining);
+				remaining = deadline - System.nanoTime();
+			}
+			this.throttleTime.add(System.nanoTime() - start);
+		}
+		this.listener.accept(session);
+	}
+
+	/**
+	 * Reserves a token, returning the duration the caller must wait until it is available.
+	 * Tokens may be reserved in advance, in which case the bucket goes into debt.
+	 */
+	private long reserve() {
+		long now = System.nanoTime();
+		// A bucket cannot hold more tokens than its burst capacity
+		long full = now - this.tolerance;
+		long current = this.schedule.get();
+		long next = ((current - full) > 0L ? current : full) + this.interval;
+		while (!this.schedule.compareAndSet(current, next)) {
+			current = this.schedule.get();
+			next = ((current - full) > 0L ? current : full) + this.interval;
+		}
+		return Math.max(0L, next - now);
+	}
+
+	/**
+	 * Returns the number of expiration notifications that were delayed by this rate limiter.
+	 * @return the number of delayed expiration notifications
+	 */
+	public long getThrottledCount() {
+		return this.throttled.sum();
+	}
+
+	/**
+	 * Returns the total duration, in milliseconds, that expiration notifications were delayed by this rate limiter.
+	 * @return the total delay, in milliseconds
+	 */
+	public long getThrottleTime() {
+		return TimeUnit.NANOSECONDS.toMillis(this.throttleTime.sum());
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
+import org.wildfly.clustering.session.Session;
+
+/**
+ * Unit test for {@link AttributeChangeDetector}.
+ * @author Paul Ferraro
+ */
+public class AttributeChangeDetectorTestCase {
+	private final ByteBufferMarshaller marshaller = mock(ByteBufferMarshaller.class);
+	private final Session<CatalinaSessionContext> session = mock(Session.class);
+	private final Map<String, Object> attributes = new HashMap<>();
+	private final Map<String, OptionalLong> baselines = new HashMap<>();
+	private final Map<String, Object> rewritten = new HashMap<>();
+	// Attributes written by the session manager on read
+	private final Set<String> written = new HashSet<>();
+	private final AttributeChangeDetector detector = new AttributeChangeDetector(this.marshaller, String.class::isInstance);
+
+	@BeforeEach
+	public void init() throws IOException {
+		doAnswer(invocation -> ByteBuffer.wrap(invocation.getArgument(0).toString().getBytes(StandardCharsets.UTF_8))).when(this.marshaller).write(any());
+		doReturn(this.attributes).when(this.session).getAttributes();
+	}
+
+	private Object read(String name) {
+		return this.detector.read(this.baselines, name, () -> {
+			Object value = this.attributes.get(name);
+			// Emulate the session manager, which writes a mutable attribute on read
+			if ((value != null) && !this.detector.getSessionImmutability().test(value)) {
+				this.written.add(name);
+			}
+			return value;
+		});
+	}
+
+	@Test
+	public void unchanged() {
+		StringBuilder value = new StringBuilder("foo");
+		this.attributes.put("foo", value);
+
+		assertThat(this.read("foo")).isSameAs(value);
+		assertThat(this.written).isEmpty();
+
+		assertThat(this.detector.detect(this.session, this.baselines, this.rewritten::put)).isFalse();
+		assertThat(this.baselines).isEmpty();
+		assertThat(this.rewritten).isEmpty();
+		assertThat(this.detector.getSuppressedCount()).isOne();
+		assertThat(this.detector.getDetectedCount()).isZero();
+	}
+
+	@Test
+	public void changed() {
+		StringBuilder value = new StringBuilder("foo");
+		this.attributes.put("foo", value);
+
+		this.read("foo");
+		value.append("bar");
+		// Subsequent reads by the same request must not move the baseline
+		this.read("foo");
+		assertThat(this.written).isEmpty();
+
+		assertThat(this.detector.detect(this.session, this.baselines, this.rewritten::put)).isTrue();
+		assertThat(this.baselines).isEmpty();
+		assertThat(this.rewritten).containsExactly(Map.entry("foo", value));
+		assertThat(this.detector.getSuppressedCount()).isZero();
+		assertThat(this.detector.getDetectedCount()).isOne();
+	}
+
+	@Test
+	public void immutable() {
+		this.attributes.put("foo", "bar");
+
+		this.read("foo");
+
+		assertThat(this.baselines).isEmpty();
+		assertThat(this.written).isEmpty();
+	}
+
+	@Test
+	public void written() {
+		StringBuilder value = new StringBuilder("foo");
+		this.attributes.put("foo", value);
+
+		this.read("foo");
+		this.detector.written(this.baselines, "foo");
+
+		assertThat(this.detector.detect(this.session, this.baselines, this.rewritten::put)).isFalse();
+		assertThat(this.detector.getSuppressedCount()).isZero();
+		assertThat(this.detector.getDetectedCount()).isZero();
+	}
+
+	@Test
+	public void removed() {
+		this.attributes.put("foo", new StringBuilder("foo"));
+
+		this.read("foo");
+		this.attributes.remove("foo");
+
+		assertThat(this.detector.detect(this.session, this.baselines, this.rewritten::put)).isFalse();
+		assertThat(this.baselines).isEmpty();
+	}
+
+	@Test
+	public void unmarshallable() throws IOException {
+		StringBuilder value = new StringBuilder("foo");
+		this.attributes.put("foo", value);
+		doThrow(IOException.class).when(this.marshaller).write(value);
+
+		this.read("foo");
+
+		// Without a baseline, defer to the configured immutability of the session manager
+		assertThat(this.baselines).isEmpty();
+		assertThat(this.written).containsExactly("foo");
+		assertThat(this.detector.detect(this.session, this.baselines, this.rewritten::put)).isFalse();
+		assertThat(this.detector.getDetectedCount()).isZero();
+	}
+
+	@Test
+	public void unscoped() {
+		// Outside of a read via the session adapter, the configured immutability applies
+		assertThat(this.detector.getSessionImmutability().test(new StringBuilder("foo"))).isFalse();
+		assertThat(this.detector.getSessionImmutability().test("foo")).isTrue();
+		assertThat(this.baselines).isEmpty();
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link ClassMarshallability}.
+ * @author Paul Ferraro
+ */
+public class ClassMarshallabilityTestCase {
+	@SuppressWarnings("unchecked")
+	private final Predicate<Object> marshaller = mock(Predicate.class);
+
+	@Test
+	public void memoized() {
+		ClassMarshallability marshallability = new ClassMarshallability(this.marshaller);
+		doReturn(true).when(this.marshaller).test(any(Marshallable.class));
+
+		assertThat(marshallability.test(new Marshallable())).isTrue();
+		assertThat(marshallability.test(new Marshallable())).isTrue();
+		assertThat(marshallability.test(new Unmarshallable())).isFalse();
+		assertThat(marshallability.test(new Unmarshallable())).isFalse();
+
+		// Marshaller is consulted once per class
+		verify(this.marshaller, times(1)).test(any(Marshallable.class));
+		verify(this.marshaller, times(1)).test(any(Unmarshallable.class));
+
+		assertThat(marshallability.getCheckCount()).isEqualTo(4L);
+		assertThat(marshallability.getMissCount()).isEqualTo(2L);
+	}
+
+	@Test
+	public void container() {
+		ClassMarshallability marshallability = new ClassMarshallability(this.marshaller);
+		List<Object> marshallable = new ArrayList<>(List.of(new Marshallable()));
+		List<Object> unmarshallable = new ArrayList<>(List.of(new Unmarshallable()));
+		Map<String, Object> map = Map.of("foo", new Marshallable());
+		doReturn(true).when(this.marshaller).test(marshallable);
+		doReturn(true).when(this.marshaller).test(map);
+
+		assertThat(marshallability.test(marshallable)).isTrue();
+		// Decision for a container is not memoized, since it depends on its contents
+		assertThat(marshallability.test(unmarshallable)).isFalse();
+		assertThat(marshallability.test(marshallable)).isTrue();
+		assertThat(marshallability.test(map)).isTrue();
+		assertThat(marshallability.test(map)).isTrue();
+
+		verify(this.marshaller, times(2)).test(marshallable);
+		verify(this.marshaller, times(1)).test(unmarshallable);
+		verify(this.marshaller, times(2)).test(map);
+
+		assertThat(marshallability.getCheckCount()).isEqualTo(5L);
+		assertThat(marshallability.getMissCount()).isEqualTo(5L);
+	}
+
+	@Test
+	public void nullValue() {
+		ClassMarshallability marshallability = new ClassMarshallability(this.marshaller);
+
+		assertThat(marshallability.test(null)).isTrue();
+
+		verifyNoInteractions(this.marshaller);
+
+		assertThat(marshallability.getCheckCount()).isEqualTo(1L);
+		assertThat(marshallability.getMissCount()).isZero();
+	}
+
+	static class Marshallable {
+	}
+
+	static class Unmarshallable {
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.function.UnaryOperator;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Unit test for {@link DistributableManager}.
+ * @author Paul Ferraro
+ */
+public class DistributableManagerTestCase {
+	private final SessionManager<CatalinaSessionContext> manager = mock(SessionManager.class);
+	private final UnaryOperator<String> affinity = mock(UnaryOperator.class);
+	private final AtomicLong topologyId = new AtomicLong();
+	private final DistributableManager.Configuration configuration = mock(DistributableManager.Configuration.class);
+
+	public DistributableManagerTestCase() {
+		doReturn(this.manager).when(this.configuration).getSessionManager();
+		doReturn(this.affinity).when(this.configuration).getAffinity();
+		LongSupplier topologyId = this.topologyId::get;
+		doReturn(topologyId).when(this.configuration).getTopologyId();
+		doReturn(new SessionLoadMonitor(Optional.empty())).when(this.configuration).getSessionLoadMonitor();
+	}
+
+	@Test
+	public void getInternalIdentifier() {
+		DistributableManager manager = new DistributableManager(this.configuration);
+		Session<CatalinaSessionContext> session = mock(Session.class);
+		doReturn("foo").when(session).getId();
+		doReturn(true).when(session).isValid();
+		doReturn(new CatalinaSessionContext()).when(session).getContext();
+		doReturn("node1", "node2").when(this.affinity).apply("foo");
+
+		assertThat(manager.getInternalIdentifier(session)).isEqualTo("foo.node1");
+		// Route is reused within the same topology
+		assertThat(manager.getInternalIdentifier(session)).isEqualTo("foo.node1");
+		verify(this.affinity, times(1)).apply("foo");
+
+		this.topologyId.incrementAndGet();
+
+		// Route is recomputed once the topology changes
+		assertThat(manager.getInternalIdentifier(session)).isEqualTo("foo.node2");
+		assertThat(manager.getInternalIdentifier(session)).isEqualTo("foo.node2");
+		verify(this.affinity, times(2)).apply("foo");
+	}
+
+	@Test
+	public void getInternalIdentifierWithoutRoute() {
+		DistributableManager manager = new DistributableManager(this.configuration);
+		Session<CatalinaSessionContext> session = mock(Session.class);
+		doReturn("foo").when(session).getId();
+		doReturn(true).when(session).isValid();
+		doReturn(new CatalinaSessionContext()).when(session).getContext();
+
+		assertThat(manager.getInternalIdentifier(session)).isEqualTo("foo");
+	}
+
+	@Test
+	public void drain() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch loaded = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			loading.countDown();
+			loaded.await();
+			return null;
+		}).when(this.manager).findSession("foo");
+		DistributableManager manager = new DistributableManager(this.configuration);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Thread drainer = new Thread(manager::stop);
+		try {
+			Future<org.apache.catalina.Session> request = executor.submit(() -> manager.findSession("foo"));
+			loading.await();
+
+			assertThat(manager.getInFlightRequestCount()).isOne();
+
+			// Stop waits for in-flight requests to complete
+			drainer.start();
+			awaitParked(drainer);
+			verify(this.manager, never()).stop();
+
+			// New requests are rejected while draining
+			assertThatThrownBy(() -> manager.findSession("bar")).isInstanceOf(IllegalStateException.class);
+			assertThat(manager.getInFlightRequestCount()).isOne();
+
+			loaded.countDown();
+
+			assertThat(request.get()).isNull();
+			drainer.join();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(manager.getInFlightRequestCount()).isZero();
+		verify(this.manager).stop();
+		verify(this.manager, never()).findSession("bar");
+	}
+
+	@Test
+	public void drainTimeout() throws Exception {
+		doReturn(Optional.of(Duration.ofMillis(100))).when(this.configuration).getDrainTimeout();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch loaded = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			loading.countDown();
+			loaded.await();
+			return null;
+		}).when(this.manager).findSession("foo");
+		DistributableManager manager = new DistributableManager(this.configuration);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<org.apache.catalina.Session> request = executor.submit(() -> manager.findSession("foo"));
+			loading.await();
+
+			// Stop gives up waiting for in-flight requests once the drain timeout elapses, i.e. returns while the request is still in flight
+			manager.stop();
+
+			assertThat(manager.getInFlightRequestCount()).isOne();
+			verify(this.manager).stop();
+
+			loaded.countDown();
+
+			assertThat(request.get()).isNull();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(manager.getInFlightRequestCount()).isZero();
+	}
+
+	private static void awaitParked(Thread drainer) {
+		// Wait for the drainer to park, rather than for some arbitrary duration
+		while (drainer.getState() != Thread.State.WAITING) {
+			assertThat(drainer.isAlive()).isTrue();
+			Thread.yield();
+		}
+	}
+
+	@Test
+	public void notFound() {
+		IdleSessionPassivator passivator = mock(IdleSessionPassivator.class);
+		doReturn(Optional.of(passivator)).when(this.configuration).getIdleSessionPassivator();
+		DistributableManager manager = new DistributableManager(this.configuration);
+
+		assertThat(manager.findSession("foo")).isNull();
+
+		assertThat(manager.getInFlightRequestCount()).isZero();
+		verify(passivator).begin("foo");
+		verify(passivator).end("foo");
+	}
+
+	@Test
+	public void loadFailure() {
+		IdleSessionPassivator passivator = mock(IdleSessionPassivator.class);
+		doReturn(Optional.of(passivator)).when(this.configuration).getIdleSessionPassivator();
+		RuntimeException exception = new IllegalStateException();
+		doThrow(exception).when(this.manager).findSession("foo");
+		DistributableManager manager = new DistributableManager(this.configuration);
+
+		assertThatThrownBy(() -> manager.findSession("foo")).isSameAs(exception);
+
+		assertThat(manager.getInFlightRequestCount()).isZero();
+		verify(passivator).begin("foo");
+		verify(passivator).end("foo");
+	}
+
+	@Test
+	public void invalidSessionCloseFailure() throws Exception {
+		IdleSessionPassivator passivator = mock(IdleSessionPassivator.class);
+		doReturn(Optional.of(passivator)).when(this.configuration).getIdleSessionPassivator();
+		Session<CatalinaSessionContext> session = mock(Session.class);
+		RuntimeException exception = new IllegalStateException();
+		doReturn(false).when(session).isValid();
+		doThrow(exception).when(session).close();
+		doReturn(session).when(this.manager).findSession("foo");
+		DistributableManager manager = new DistributableManager(this.configuration);
+
+		assertThatThrownBy(() -> manager.findSession("foo")).isSameAs(exception);
+
+		// Request exits exactly once
+		assertThat(manager.getInFlightRequestCount()).isZero();
+		verify(session).close();
+		verify(passivator).begin("foo");
+		verify(passivator).end("foo");
+
+		// Manager does not consider a request to be in-flight
+		manager.stop();
+
+		verify(this.manager).stop();
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+
+/**
+ * Unit test for {@link SessionExpirationDispatcher}.
+ * @author Paul Ferraro
+ */
+public class SessionExpirationDispatcherTestCase {
+
+	@Test
+	public void snapshot() {
+		List<ImmutableSession> notified = new CopyOnWriteArrayList<>();
+		ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+		Map<String, Object> attributes = new HashMap<>(Map.of("foo", "bar"));
+		ImmutableSession session = createSession("foo", metaData, attributes);
+
+		try (SessionExpirationDispatcher dispatcher = new SessionExpirationDispatcher(notified::add, 2, 10)) {
+			dispatcher.accept(session);
+			// Emulate removal of session following expiration
+			attributes.clear();
+		}
+
+		assertThat(notified).hasSize(1);
+		ImmutableSession result = notified.get(0);
+		assertThat(result.getId()).isEqualTo("foo");
+		assertThat(result.isValid()).isTrue();
+		assertThat(result.getMetaData()).isSameAs(metaData);
+		assertThat(result.getAttributes()).containsExactly(Map.entry("foo", "bar"));
+	}
+
+	@Test
+	public void order() {
+		List<Object> notified = new CopyOnWriteArrayList<>();
+		int count = 100;
+
+		try (SessionExpirationDispatcher dispatcher = new SessionExpirationDispatcher(session -> notified.add(session.getAttributes().get("index")), 4, 2)) {
+			for (int i = 0; i < count; ++i) {
+				dispatcher.accept(createSession("foo", mock(ImmutableSessionMetaData.class), Map.of("index", i)));
+			}
+		}
+
+		// Notifications for the same session are dispatched in order, and pending notifications complete on close
+		assertThat(notified).containsExactlyElementsOf(IntStream.range(0, count).boxed().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void failure() {
+		List<String> notified = new CopyOnWriteArrayList<>();
+
+		try (SessionExpirationDispatcher dispatcher = new SessionExpirationDispatcher(session -> {
+			if (session.getId().equals("foo")) {
+				throw new IllegalStateException();
+			}
+			notified.add(session.getId());
+		}, 1, 10)) {
+			dispatcher.accept(createSession("foo", mock(ImmutableSessionMetaData.class), Map.of()));
+			dispatcher.accept(createSession("bar", mock(ImmutableSessionMetaData.class), Map.of()));
+			dispatcher.close();
+
+			// A failed notification does not prevent subsequent notifications
+			assertThat(notified).containsExactly("bar");
+			assertThat(dispatcher.getDispatchedCount()).isEqualTo(2L);
+		}
+	}
+
+	@Test
+	public void throttle() {
+		List<String> notified = new CopyOnWriteArrayList<>();
+		ExpirationRateLimiter limiter = new ExpirationRateLimiter(session -> notified.add(session.getId()), 1, 1);
+
+		try (SessionExpirationDispatcher dispatcher = new SessionExpirationDispatcher(limiter, 1, 10)) {
+			// The expiring thread hands off its notification without waiting for the rate limit
+			dispatcher.accept(createSession("foo", mock(ImmutableSessionMetaData.class), Map.of()));
+			dispatcher.accept(createSession("bar", mock(ImmutableSessionMetaData.class), Map.of()));
+			assertThat(dispatcher.getBlockedCount()).isZero();
+		}
+
+		// Throttled notifications complete on close
+		assertThat(notified).containsExactly("foo", "bar");
+		assertThat(limiter.getThrottledCount()).isOne();
+	}
+
+	private static ImmutableSession createSession(String id, ImmutableSessionMetaData metaData, Map<String, Object> attributes) {
+		ImmutableSession session = mock(ImmutableSession.class);
+		doReturn(id).when(session).getId();
+		doReturn(true).when(session).isValid();
+		doReturn(metaData).when(session).getMetaData();
+		doReturn(attributes).when(session).getAttributes();
+		return session;
+	}
+}
@@ -55,6 +55,7 @@ public class JChannelConfigurator implements JGroupsChannelConfigurator, Address
 
 	private final String name;
 	private final ProtocolStackConfigurator configurator;
+	private final boolean virtualThreads;
 
 	/**
 	 * Creates a JGroups channel configurator.
@@ -63,8 +64,20 @@ public class JChannelConfigurator implements JGroupsChannelConfigurator, Address
 	 * @throws IOException if the JGroups configuration could not be loadeded
 	 */
 	public JChannelConfigurator(TransportConfiguration transport, ClassLoader loader) throws IOException {
+		this(transport, loader, false);
+	}
+
+	/**
+	 * Creates a JGroups channel configurator.
+	 * @param transport a transport configuration
+	 * @param loader the class loader used to load protocol classes
+	 * @param virtualThreads indicates whether the transport should create virtual threads
+	 * @throws IOException if the JGroups configuration could not be loadeded
+	 */
+	public JChannelConfigurator(TransportConfiguration transport, ClassLoader loader, boolean virtualThreads) throws IOException {
 		this.name = transport.stack();
 		this.configurator = getProtocolStackConfigurator(transport, loader);
+		this.virtualThreads = virtualThreads;
 	}
 
 	private static ProtocolStackConfigurator getProtocolStackConfigurator(TransportConfiguration transport, ClassLoader loader) throws IOException {
@@ -159,7 +172,7 @@ public class JChannelConfigurator implements JGroupsChannelConfigurator, Address
 		// Add implicit FORK to the top of the stack
 		protocols.add(fork);
 		TP transport = (TP) protocols.get(0);
-		transport.setThreadFactory(new ClassLoaderThreadFactory(new DefaultThreadFactory("jgroups", false, true), JChannelConfigurator.class.getClassLoader()));
+		transport.setThreadFactory(new ClassLoaderThreadFactory(new DefaultThreadFactory("jgroups", false, true).useVirtualThreads(this.virtualThreads), JChannelConfigurator.class.getClassLoader()));
 
 		JChannel channel = new JChannel(protocols);
 		channel.addAddressGenerator(this);
@@ -0,0 +1,155 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.embedded;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.executors.ThreadPoolExecutorFactory;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.threads.CoreExecutorFactory;
+
+/**
+ * Sizing configuration and runtime metrics of a thread pool of a cache container.
+ * @author Paul Ferraro
+ */
+class ThreadPool {
+	/** Metric value reported while this thread pool is backed by an executor without a bounded pool, e.g. one creating virtual threads. */
+	static final int UNAVAILABLE = -1;
+	private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(1);
+
+	private final LongAdder rejections = new LongAdder();
+	private volatile Integer coreThreads = null;
+	private volatile int maxThreads;
+	private volatile int queueLength;
+	private volatile Duration keepAlive = null;
+	private volatile ThreadPoolExecutor executor = null;
+	private volatile boolean unbounded = false;
+
+	/**
+	 * Creates a thread pool using the default sizing of the specified component.
+	 * @param componentName the component name of a thread pool
+	 */
+	ThreadPool(String componentName) {
+		this.maxThreads = KnownComponentNames.getDefaultThreads(componentName);
+		this.queueLength = KnownComponentNames.getDefaultQueueSize(componentName);
+	}
+
+	void setCoreThreads(int coreThreads) {
+		this.coreThreads = coreThreads;
+	}
+
+	void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	void setQueueLength(int queueLength) {
+		this.queueLength = queueLength;
+	}
+
+	void setKeepAlive(Duration keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	/**
+	 * Indicates whether the core threads or keep-alive of this thread pool were specified.
+	 * @return true, if this thread pool overrides the core threads or keep-alive of its executor factory, false otherwise.
+	 */
+	boolean isCustomized() {
+		return (this.coreThreads != null) || (this.keepAlive != null);
+	}
+
+	/**
+	 * Creates an executor factory using the configured sizing of this thread pool.
+	 * Unless core threads or keep-alive were specified, this is the default executor factory of Infinispan for the configured maximum threads and queue length.
+	 * @param nonBlocking indicates whether the executor should create non-blocking threads
+	 * @return an executor factory
+	 */
+	ThreadPoolExecutorFactory<? extends ExecutorService> createFactory(boolean nonBlocking) {
+		if (!this.isCustomized()) {
+			return CoreExecutorFactory.executorFactory(this.maxThreads, this.queueLength, nonBlocking);
+		}
+		Integer coreThreads = this.coreThreads;
+		Duration keepAlive = this.keepAlive;
+		int maxThreads = this.maxThreads;
+		return CoreExecutorFactory.executorFactory(maxThreads, (coreThreads != null) ? Math.min(coreThreads, maxThreads) : maxThreads, this.queueLength, ((keepAlive != null) ? keepAlive : DEFAULT_KEEP_ALIVE).toMillis(), nonBlocking);
+	}
+
+	/**
+	 * Registers the specified executor with this thread pool, so that its metrics can be reported.
+	 * Executors that are not backed by a thread pool, e.g. one creating virtual threads, are not instrumented, and their metrics are reported as {@value #UNAVAILABLE}.
+	 * @param <E> the executor type
+	 * @param executor an executor created for this thread pool
+	 * @return the specified executor
+	 */
+	<E extends ExecutorService> E register(E executor) {
+		if (executor instanceof ThreadPoolExecutor) {
+			ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			Integer coreThreads = this.coreThreads;
+			if ((pool instanceof ScheduledThreadPoolExecutor) && (coreThreads != null)) {
+				// Scheduled executors are sized by their core threads only
+				pool.setCorePoolSize(coreThreads);
+			}
+			RejectedExecutionHandler handler = pool.getRejectedExecutionHandler();
+			LongAdder rejections = this.rejections;
+			pool.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+					rejections.increment();
+					handler.rejectedExecution(task, executor);
+				}
+			});
+			this.executor = pool;
+		} else {
+			this.unbounded = true;
+		}
+		return executor;
+	}
+
+	/**
+	 * Unregisters any executor previously registered with this thread pool.
+	 */
+	void unregister() {
+		this.executor = null;
+		this.unbounded = false;
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of this thread pool.
+	 * @return the number of queued tasks, or {@value #UNAVAILABLE} if this thread pool is unbounded
+	 */
+	int getQueueSize() {
+		if (this.unbounded) {
+			return UNAVAILABLE;
+		}
+		ThreadPoolExecutor executor = this.executor;
+		return (executor != null) ? executor.getQueue().size() : 0;
+	}
+
+	/**
+	 * Returns the approximate number of threads of this thread pool actively executing tasks.
+	 * @return the number of active threads, or {@value #UNAVAILABLE} if this thread pool is unbounded
+	 */
+	int getActiveThreads() {
+		if (this.unbounded) {
+			return UNAVAILABLE;
+		}
+		ThreadPoolExecutor executor = this.executor;
+		return (executor != null) ? executor.getActiveCount() : 0;
+	}
+
+	/**
+	 * Returns the number of tasks rejected by this thread pool since it was created.
+	 * Depending on the thread pool, a rejected task is either executed by the submitting thread or fails.
+	 * @return the number of rejected tasks, or {@value #UNAVAILABLE} if this thread pool is unbounded
+	 */
+	long getRejectedTaskCount() {
+		return this.unbounded ? UNAVAILABLE : this.rejections.sum();
+	}
+}
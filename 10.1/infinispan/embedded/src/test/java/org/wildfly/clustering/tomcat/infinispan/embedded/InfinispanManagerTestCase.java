@@ -0,0 +1,34 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.embedded;
+
+import static org.assertj.core.api.Assertions.*;
+
+import jakarta.transaction.RollbackException;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.transaction.WriteSkewException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link InfinispanManager}.
+ * @author Paul Ferraro
+ */
+public class InfinispanManagerTestCase {
+
+	@Test
+	public void writeSkew() {
+		assertThat(InfinispanManager.WRITE_SKEW.test(new WriteSkewException("foo", "bar"))).isTrue();
+		assertThat(InfinispanManager.WRITE_SKEW.test(new CacheException(new WriteSkewException("foo", "bar")))).isTrue();
+
+		// Write skew suppressed by the rollback of a failed commit
+		RollbackException rollback = new RollbackException();
+		rollback.addSuppressed(new WriteSkewException("foo", "bar"));
+		assertThat(InfinispanManager.WRITE_SKEW.test(new CacheException(rollback))).isTrue();
+
+		assertThat(InfinispanManager.WRITE_SKEW.test(new CacheException(new RollbackException()))).isFalse();
+		assertThat(InfinispanManager.WRITE_SKEW.test(new CacheException())).isFalse();
+	}
+}
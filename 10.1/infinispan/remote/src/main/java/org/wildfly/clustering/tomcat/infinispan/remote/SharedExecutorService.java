@@ -0,0 +1,172 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.remote;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.infinispan.client.hotrod.impl.async.DefaultAsyncExecutorFactory;
+
+/**
+ * A view of a bounded thread pool shared by all HotRod managers of this class loader with the same executor configuration.
+ * Shutting down this view does not shut down the shared thread pool, which is instead shut down once all of its views are closed.
+ * Termination of this view only awaits completion of the tasks submitted via this view.
+ * Since a thread of the shared pool may be created by any manager, its context class loader is that of the container, rather than that of the web application whose task created it.
+ * @author Paul Ferraro
+ */
+class SharedExecutorService extends AbstractExecutorService implements AutoCloseable {
+	// Prefix of the HotRod client properties that configure the default executor
+	private static final String EXECUTOR_PROPERTY_PREFIX = "infinispan.client.hotrod.default_executor_factory.";
+	// Shared thread pools, keyed by executor configuration
+	private static final Map<Map<String, String>, SharedThreadPool> POOLS = new HashMap<>();
+
+	private static class SharedThreadPool {
+		final ThreadPoolExecutor executor;
+		int references = 0;
+
+		SharedThreadPool(Properties properties, ClassLoader loader) {
+			this.executor = new DefaultAsyncExecutorFactory().getExecutor(properties);
+			ThreadFactory factory = this.executor.getThreadFactory();
+			// Otherwise a new thread would inherit the context class loader of the thread submitting the task
+			this.executor.setThreadFactory(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable task) {
+					Thread thread = factory.newThread(task);
+					if (thread != null) {
+						thread.setContextClassLoader(loader);
+					}
+					return thread;
+				}
+			});
+		}
+	}
+
+	private static ThreadPoolExecutor acquire(Map<String, String> key, Properties properties, ClassLoader loader) {
+		synchronized (POOLS) {
+			SharedThreadPool pool = POOLS.computeIfAbsent(key, k -> new SharedThreadPool(properties, loader));
+			pool.references += 1;
+			return pool.executor;
+		}
+	}
+
+	private static void release(Map<String, String> key) {
+		synchronized (POOLS) {
+			SharedThreadPool pool = POOLS.get(key);
+			if (--pool.references == 0) {
+				POOLS.remove(key);
+				pool.executor.shutdown();
+			}
+		}
+	}
+
+	private final Map<String, String> key;
+	private final ThreadPoolExecutor pool;
+	private final AtomicInteger tasks = new AtomicInteger();
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Creates a view of the thread pool shared by managers with the executor configuration of the specified properties, creating the shared thread pool if necessary.
+	 * @param properties HotRod client properties
+	 * @param loader the container class loader, with which to associate the context of the threads of the shared thread pool
+	 */
+	SharedExecutorService(Properties properties, ClassLoader loader) {
+		this.key = properties.stringPropertyNames().stream().filter(name -> name.startsWith(EXECUTOR_PROPERTY_PREFIX)).collect(Collectors.toUnmodifiableMap(Function.identity(), properties::getProperty));
+		this.pool = acquire(this.key, properties, loader);
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of the shared thread pool.
+	 * @return the number of queued tasks
+	 */
+	int getQueueSize() {
+		return this.pool.getQueue().size();
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		// Register task before checking for shutdown, so that termination cannot be reported while a task is being submitted
+		this.tasks.incrementAndGet();
+		if (this.shutdown) {
+			this.completed();
+			throw new RejectedExecutionException();
+		}
+		try {
+			this.pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} finally {
+						SharedExecutorService.this.completed();
+					}
+				}
+			});
+		} catch (RuntimeException | Error e) {
+			this.completed();
+			throw e;
+		}
+	}
+
+	private void completed() {
+		if ((this.tasks.decrementAndGet() == 0) && this.shutdown) {
+			this.signal();
+		}
+	}
+
+	private synchronized void signal() {
+		this.notifyAll();
+	}
+
+	@Override
+	public void shutdown() {
+		this.shutdown = true;
+		this.signal();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		this.shutdown();
+		// Tasks of this view cannot be distinguished from those of other views within the queue of the shared thread pool
+		return List.of();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return this.shutdown && (this.tasks.get() == 0);
+	}
+
+	@Override
+	public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!this.isTerminated()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0L) {
+				return false;
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return true;
+	}
+
+	@Override
+	public void close() {
+		release(this.key);
+	}
+}
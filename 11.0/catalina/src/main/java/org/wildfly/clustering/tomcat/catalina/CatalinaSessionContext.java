@@ -5,10 +5,12 @@
 package org.wildfly.clustering.tomcat.catalina;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.catalina.SessionListener;
 
@@ -21,6 +23,8 @@ public class CatalinaSessionContext {
 	private final List<SessionListener> listeners = new CopyOnWriteArrayList<>();
 	private volatile String authType;
 	private volatile Principal principal;
+	private volatile Map.Entry<Long, String> internalId;
+	private final AtomicReference<Long> lastAccessorAccess = new AtomicReference<>();
 
 	/**
 	 * Creates the context of a Tomcat session.
@@ -60,6 +64,37 @@ public class CatalinaSessionContext {
 		this.principal = principal;
 	}
 
+	/**
+	 * Returns the internal identifier of this session, if previously computed for the specified topology.
+	 * @param topologyId a topology identifier
+	 * @return the internal identifier of this session, or null, if not computed for the specified topology.
+	 */
+	public String getInternalId(long topologyId) {
+		Map.Entry<Long, String> entry = this.internalId;
+		return ((entry != null) && (entry.getKey().longValue() == topologyId)) ? entry.getValue() : null;
+	}
+
+	/**
+	 * Specifies the internal identifier of this session, as computed for the specified topology.
+	 * @param topologyId a topology identifier
+	 * @param internalId the internal identifier of this session
+	 */
+	public void setInternalId(long topologyId, String internalId) {
+		this.internalId = Map.entry(topologyId, internalId);
+	}
+
+	/**
+	 * Records an access of this session via its {@link jakarta.servlet.http.HttpSession.Accessor}, unless one was already recorded within the specified window.
+	 * This only determines whether the last access time of the session is written; the access itself still loads and commits the session.
+	 * @param window the window within which at most one access is recorded
+	 * @return true, if the access was recorded, false otherwise.
+	 */
+	public boolean recordAccessorAccess(Duration window) {
+		long now = System.nanoTime();
+		Long lastAccess = this.lastAccessorAccess.get();
+		return ((lastAccess == null) || (now - lastAccess.longValue() >= window.toNanos())) && this.lastAccessorAccess.compareAndSet(lastAccess, now);
+	}
+
 	/**
 	 * Returns the notes of this session.
 	 * @return the notes of this session.
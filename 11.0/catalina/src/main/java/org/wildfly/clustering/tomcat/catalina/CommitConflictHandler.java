@@ -0,0 +1,141 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.function.Predicate;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Handles conflicts detected while committing a session, e.g. write skew under optimistic locking, by retrying a task against the current state of the session.
+ * Since the changes of a conflicting request were discarded in favor of the request that committed first, a retry replays the changes of that request via the specified task.
+ * A conflict is considered recovered only if the changes of the conflicting request could be replayed, otherwise its commit fails and its changes are reported as lost.
+ * @author Paul Ferraro
+ */
+public class CommitConflictHandler {
+	private static final System.Logger LOGGER = System.getLogger(CommitConflictHandler.class.getCanonicalName());
+
+	private final Predicate<Throwable> conflict;
+	private final int retries;
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder recovered = new LongAdder();
+	private final LongAdder lost = new LongAdder();
+
+	/**
+	 * Creates a commit conflict handler.
+	 * @param conflict a predicate indicating whether a given exception signals a commit conflict
+	 * @param retries the maximum number of retries per conflict
+	 */
+	public CommitConflictHandler(Predicate<Throwable> conflict, int retries) {
+		this.conflict = conflict;
+		this.retries = retries;
+	}
+
+	/**
+	 * Handles the specified exception thrown while committing the session with the specified identifier.
+	 * If the exception signals a commit conflict, and the changes of the failed commit can be replayed, the specified task is retried against the current state of the session, within a new batch.
+	 * If the changes of the failed commit cannot be replayed, or no retry succeeds, these changes are lost, and the exception is left to the caller to report.
+	 * @param exception an exception thrown while committing a session
+	 * @param replayable indicates whether the changes of the failed commit can be replayed via the specified task
+	 * @param manager the session manager
+	 * @param id a session identifier
+	 * @param task a task that replays the changes of the failed commit against the session
+	 * @return true, if the exception signalled a conflict that was recovered, false otherwise.
+	 */
+	public boolean handle(Throwable exception, boolean replayable, SessionManager<CatalinaSessionContext> manager, String id, Consumer<Session<CatalinaSessionContext>> task) {
+		if (!this.isConflict(exception)) return false;
+		this.conflicts.increment();
+		if (replayable && this.retry(manager, id, task)) {
+			this.recovered.increment();
+			return true;
+		}
+		this.lost.increment();
+		return false;
+	}
+
+	private boolean retry(SessionManager<CatalinaSessionContext> manager, String id, Consumer<Session<CatalinaSessionContext>> task) {
+		for (int i = 0; i < this.retries; ++i) {
+			try (Session<CatalinaSessionContext> session = manager.findSession(id)) {
+				if (session != null) {
+					task.accept(session);
+				}
+			} catch (RuntimeException e) {
+				if (!this.isConflict(e)) {
+					throw e;
+				}
+				LOGGER.log(System.Logger.Level.DEBUG, "Retry {0} of commit of session {1} conflicted", i + 1, id);
+				continue;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isConflict(Throwable exception) {
+		return anyCause(exception, this.conflict);
+	}
+
+	/**
+	 * Indicates whether the specified exception, any exception in its chain of causes, or any exception suppressed by these, satisfies the specified predicate.
+	 * For example, the write skew of an optimistic transaction may be suppressed by the exception thrown on rollback.
+	 * @param exception an exception
+	 * @param predicate a predicate of an exception
+	 * @return true, if any exception reachable from the specified exception satisfies the specified predicate, false otherwise.
+	 */
+	public static boolean anyCause(Throwable exception, Predicate<Throwable> predicate) {
+		// Guard against cyclic causes or suppressed exceptions
+		Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Throwable> pending = new ArrayDeque<>();
+		if (exception != null) {
+			pending.push(exception);
+		}
+		while (!pending.isEmpty()) {
+			Throwable current = pending.pop();
+			if (visited.add(current)) {
+				if (predicate.test(current)) return true;
+				Throwable cause = current.getCause();
+				if (cause != null) {
+					pending.push(cause);
+				}
+				for (Throwable suppressed : current.getSuppressed()) {
+					pending.push(suppressed);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of session commits that failed due to a conflict.
+	 * @return the number of commit conflicts
+	 */
+	public long getConflictCount() {
+		return this.conflicts.sum();
+	}
+
+	/**
+	 * Returns the number of commit conflicts whose changes were replayed via retry.
+	 * @return the number of recovered commit conflicts
+	 */
+	public long getRecoveredCount() {
+		return this.recovered.sum();
+	}
+
+	/**
+	 * Returns the number of commit conflicts whose changes could not be replayed, and were therefore lost.
+	 * @return the number of lost commits
+	 */
+	public long getLostCount() {
+		return this.lost.sum();
+	}
+}
@@ -6,22 +6,20 @@
 package org.wildfly.clustering.tomcat.catalina;
 
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.servlet.http.HttpSession;
 
-import org.wildfly.clustering.function.Function;
-import org.wildfly.clustering.server.util.Reference;
-import org.wildfly.clustering.session.Session;
+import org.apache.catalina.Session;
 
 /**
  * Accessor used to access session outside the scope of a request.
+ * Each access is subject to the same lifecycle as the access of a request.
+ * If the manager defines an accessor coalescing window, the last access time of a session is written at most once per window.
  * @author Paul Ferraro
  */
 public class DistributableHttpSessionAccessor implements HttpSession.Accessor {
 	private final CatalinaManager manager;
 	private final String id;
-	private final Reference.Reader<HttpSession> reader;
 
 	/**
 	 * Constructs a new session accessor using the specified manager and identifier provider.
@@ -31,20 +29,19 @@ public class DistributableHttpSessionAccessor implements HttpSession.Accessor {
 	public DistributableHttpSessionAccessor(CatalinaManager manager, String id) {
 		this.manager = manager;
 		this.id = id;
-		this.reader = this.manager.getSessionManager().getSessionReference(this.id).getReader().map(new Function<>() {
-			@Override
-			public HttpSession apply(Session<CatalinaSessionContext> session) {
-				if (session == null) {
-					throw new IllegalStateException();
-				}
-				return new DistributableHttpSession(manager, Reference.of(session), new AtomicReference<>());
-			}
-		});
 	}
 
 	@Override
 	public void access(java.util.function.Consumer<HttpSession> consumer) {
-		this.reader.read(consumer);
+		Session session = this.manager.findAccessorSession(this.id);
+		if (session == null) {
+			throw new IllegalStateException();
+		}
+		try {
+			consumer.accept(session.getSession());
+		} finally {
+			session.endAccess();
+		}
 	}
 
 	@Override
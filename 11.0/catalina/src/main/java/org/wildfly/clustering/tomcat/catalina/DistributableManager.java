@@ -4,8 +4,12 @@
  */
 package org.wildfly.clustering.tomcat.catalina;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpSession;
@@ -15,6 +19,7 @@ import jakarta.servlet.http.HttpSessionEvent;
 import org.wildfly.clustering.function.BiFunction;
 import org.wildfly.clustering.function.Predicate;
 import org.wildfly.clustering.function.UnaryOperator;
+import org.wildfly.clustering.server.immutable.Immutability;
 import org.wildfly.clustering.session.Session;
 import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.container.ContainerProvider;
@@ -31,17 +36,36 @@ public class DistributableManager implements CatalinaManager {
 		SessionManager<CatalinaSessionContext> getSessionManager();
 		ContainerProvider<ServletContext, HttpSession, HttpSessionActivationListener, CatalinaSessionContext> getContainerProvider();
 		UnaryOperator<String> getAffinity();
+		LongSupplier getTopologyId();
 		org.apache.catalina.Context getContext();
 		Predicate<Object> getMarshallability();
+		Immutability getImmutability();
+		Optional<Duration> getDrainTimeout();
+		Duration getAccessorCoalescingWindow();
+		Optional<AttributeChangeDetector> getAttributeChangeDetector();
+		Optional<CommitConflictHandler> getCommitConflictHandler();
+		SessionLoadMonitor getSessionLoadMonitor();
+		Optional<IdleSessionPassivator> getIdleSessionPassivator();
 	}
 
 	private final ContainerProvider<ServletContext, HttpSession, HttpSessionActivationListener, CatalinaSessionContext> provider;
 	private final SessionManager<CatalinaSessionContext> manager;
 	private final UnaryOperator<String> internalizer;
+	private final LongSupplier topologyId;
 	private final org.apache.catalina.Context context;
 	private final Predicate<Object> marshallability;
-	private final StampedLock lifecycleLock = new StampedLock();
-	private final AtomicLong lifecycleStamp = new AtomicLong();
+	private final Immutability immutability;
+	private final Optional<Duration> drainTimeout;
+	private final Duration accessorCoalescingWindow;
+	private final Optional<AttributeChangeDetector> attributeChangeDetector;
+	private final Optional<CommitConflictHandler> commitConflictHandler;
+	private final SessionLoadMonitor loadMonitor;
+	private final Optional<IdleSessionPassivator> passivator;
+	// Striped counter of in-flight requests, avoiding contention on a single lock word
+	// A single counter, rather than a striped adder, so that a drain observes an exact count
+	private final AtomicLong inFlightRequests = new AtomicLong();
+	private volatile boolean draining = false;
+	private volatile Thread drainer;
 
 	/**
 	 * Creates a distributed manager.
@@ -57,8 +81,16 @@ public class DistributableManager implements CatalinaManager {
 				return (route != null) ? new StringBuilder(id.length() + route.length() + 1).append(id).append(ROUTE_DELIMITER).append(route).toString() : id;
 			}
 		};
+		this.topologyId = configuration.getTopologyId();
 		this.marshallability = configuration.getMarshallability();
+		this.immutability = configuration.getImmutability();
 		this.context = configuration.getContext();
+		this.drainTimeout = configuration.getDrainTimeout();
+		this.accessorCoalescingWindow = configuration.getAccessorCoalescingWindow();
+		this.attributeChangeDetector = configuration.getAttributeChangeDetector();
+		this.commitConflictHandler = configuration.getCommitConflictHandler();
+		this.loadMonitor = configuration.getSessionLoadMonitor();
+		this.passivator = configuration.getIdleSessionPassivator();
 	}
 
 	@Override
@@ -71,6 +103,32 @@ public class DistributableManager implements CatalinaManager {
 		return this.internalizer;
 	}
 
+	@Override
+	public String getInternalIdentifier(Session<CatalinaSessionContext> session) {
+		if (!session.isValid()) {
+			return this.internalizer.apply(session.getId());
+		}
+		// Reuse the route computed for this session, unless the topology has since changed
+		long topologyId = this.topologyId.getAsLong();
+		CatalinaSessionContext context = session.getContext();
+		String internalId = context.getInternalId(topologyId);
+		if (internalId == null) {
+			internalId = this.internalizer.apply(session.getId());
+			context.setInternalId(topologyId, internalId);
+		}
+		return internalId;
+	}
+
+	@Override
+	public Optional<AttributeChangeDetector> getAttributeChangeDetector() {
+		return this.attributeChangeDetector;
+	}
+
+	@Override
+	public Optional<CommitConflictHandler> getCommitConflictHandler() {
+		return this.commitConflictHandler;
+	}
+
 	@Override
 	public ContainerProvider<ServletContext, HttpSession, HttpSessionActivationListener, CatalinaSessionContext> getContainerProvider() {
 		return this.provider;
@@ -81,21 +139,53 @@ public class DistributableManager implements CatalinaManager {
 		return this.marshallability;
 	}
 
+	@Override
+	public Immutability getImmutability() {
+		return this.immutability;
+	}
+
 	@Override
 	public void start() {
 		CatalinaManager.super.start();
-		long stamp = this.lifecycleStamp.getAndSet(0L);
-		if (StampedLock.isWriteLockStamp(stamp)) {
-			this.lifecycleLock.unlockWrite(stamp);
-		}
+		this.drainer = null;
+		this.draining = false;
+	}
+
+	/**
+	 * Returns the number of requests currently accessing a session of this manager.
+	 * @return the number of requests currently accessing a session of this manager.
+	 */
+	public int getInFlightRequestCount() {
+		return (int) this.inFlightRequests.get();
 	}
 
 	@Override
 	public void stop() {
-		try {
-			this.lifecycleStamp.set(this.lifecycleLock.writeLockInterruptibly());
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
+		// Reject new requests and wait for in-flight requests to complete, so that their session state is committed before the session manager stops
+		this.drainer = Thread.currentThread();
+		this.draining = true;
+		int inFlight = this.getInFlightRequestCount();
+		long start = System.nanoTime();
+		long deadline = start + this.drainTimeout.orElse(Duration.ZERO).toNanos();
+		while (this.inFlightRequests.get() > 0L) {
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (this.drainTimeout.isPresent()) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0L) break;
+				LockSupport.parkNanos(this, remaining);
+			} else {
+				LockSupport.park(this);
+			}
+		}
+		long duration = Duration.ofNanos(System.nanoTime() - start).toMillis();
+		int remaining = this.getInFlightRequestCount();
+		if (remaining == 0) {
+			LOGGER.log(System.Logger.Level.DEBUG, "{0} in-flight requests completed within {1} ms", inFlight, duration);
+		} else {
+			LOGGER.log(System.Logger.Level.WARNING, "{0} of {1} in-flight requests did not complete within {2} ms", remaining, inFlight, duration);
 		}
 		CatalinaManager.super.stop();
 	}
@@ -103,36 +193,47 @@ public class DistributableManager implements CatalinaManager {
 	@Override
 	public org.apache.catalina.Session createSession(String id) {
 		LOGGER.log(System.Logger.Level.TRACE, "DistributableManager.createSession({0})", id);
-		return this.getSession(SessionManager::createSession, id);
+		return this.getSession(SessionManager::createSession, id, Duration.ZERO);
 	}
 
 	@Override
 	public org.apache.catalina.Session findSession(String id) {
 		LOGGER.log(System.Logger.Level.TRACE, "DistributableManager.findSession({0})", id);
-		return this.getSession(SessionManager::findSession, id);
+		return this.getSession(this::loadSession, id, Duration.ZERO);
+	}
+
+	@Override
+	public org.apache.catalina.Session findAccessorSession(String id) {
+		LOGGER.log(System.Logger.Level.TRACE, "DistributableManager.findAccessorSession({0})", id);
+		return this.getSession(this::loadSession, id, this.accessorCoalescingWindow);
+	}
+
+	private Session<CatalinaSessionContext> loadSession(SessionManager<CatalinaSessionContext> manager, String id) {
+		return this.loadMonitor.load(id, () -> manager.findSession(id), () -> manager.findSessionAsync(id));
 	}
 
-	private org.apache.catalina.Session getSession(BiFunction<SessionManager<CatalinaSessionContext>, String, Session<CatalinaSessionContext>> function, String id) {
-		Runnable closeTask = this.getSessionCloseTask();
-		Session<CatalinaSessionContext> session = function.apply(this.manager, id);
+	private org.apache.catalina.Session getSession(BiFunction<SessionManager<CatalinaSessionContext>, String, Session<CatalinaSessionContext>> function, String id, Duration accessWindow) {
+		Runnable closeTask = this.enter(id);
+		Session<CatalinaSessionContext> session;
 		try {
-			if ((session == null) || !session.isValid()) {
-				if (session == null) {
-					LOGGER.log(System.Logger.Level.TRACE, "Session {0} was not found.", id);
-				} else {
-					LOGGER.log(System.Logger.Level.TRACE, "Session {0} was found but is not valid.", id);
-				}
-				try (Session<CatalinaSessionContext> invalidSession = session) {
-					return null;
-				} finally {
-					closeTask.run();
+			session = function.apply(this.manager, id);
+		} catch (RuntimeException | Error e) {
+			closeTask.run();
+			throw e;
+		}
+		return this.getSession(id, session, closeTask, accessWindow);
+	}
+
+	private org.apache.catalina.Session getSession(String id, Session<CatalinaSessionContext> session, Runnable closeTask, Duration accessWindow) {
+		try {
+			if ((session != null) && session.isValid()) {
+				DistributableSession result = new DistributableSession(this, session, closeTask, accessWindow);
+				if (session.getMetaData().getLastAccessTime().isEmpty()) {
+					// Reuse HttpSession adapter of the Tomcat session
+					CatalinaSessionEventNotifier.Lifecycle.CREATE.accept(this, new HttpSessionEvent(result.getSession()));
 				}
+				return result;
 			}
-			if (session.getMetaData().getLastAccessTime().isEmpty()) {
-				HttpSessionEvent event = new HttpSessionEvent(this.getContainerProvider().getSession(this.getSessionManager(), session, this.getContext().getServletContext()));
-				CatalinaSessionEventNotifier.Lifecycle.CREATE.accept(this, event);
-			}
-			return new DistributableSession(this, session, closeTask);
 		} catch (RuntimeException | Error e) {
 			try (Session<CatalinaSessionContext> failedSession = session) {
 				throw e;
@@ -140,6 +241,16 @@ public class DistributableManager implements CatalinaManager {
 				closeTask.run();
 			}
 		}
+		if (session == null) {
+			LOGGER.log(System.Logger.Level.TRACE, "Session {0} was not found.", id);
+		} else {
+			LOGGER.log(System.Logger.Level.TRACE, "Session {0} was found but is not valid.", id);
+		}
+		try (Session<CatalinaSessionContext> invalidSession = session) {
+			return null;
+		} finally {
+			closeTask.run();
+		}
 	}
 
 	@Override
@@ -157,22 +268,34 @@ public class DistributableManager implements CatalinaManager {
 		return false;
 	}
 
-	private Runnable getSessionCloseTask() {
-		StampedLock lock = this.lifecycleLock;
-		long stamp = lock.tryReadLock();
-		if (!StampedLock.isReadLockStamp(stamp)) {
+	private Runnable enter(String id) {
+		this.inFlightRequests.incrementAndGet();
+		if (this.draining) {
+			this.exit();
 			throw new IllegalStateException();
 		}
-		AtomicLong stampRef = new AtomicLong(stamp);
-		return new Runnable() {
-			@Override
-			public void run() {
-				// Ensure we only unlock once.
-				long stamp = stampRef.getAndSet(0L);
-				if (StampedLock.isReadLockStamp(stamp)) {
-					lock.unlockRead(stamp);
+		this.passivator.ifPresent(passivator -> passivator.begin(id));
+		AtomicBoolean exited = new AtomicBoolean(false);
+		return () -> {
+			// Only exit once per request
+			if (exited.compareAndSet(false, true)) {
+				try {
+					// Idle time of a session starts when its request ends
+					this.passivator.ifPresent(passivator -> passivator.end(id));
+				} finally {
+					this.exit();
 				}
 			}
 		};
 	}
+
+	private void exit() {
+		// Only the exit of the last in-flight request need wake the drainer
+		if ((this.inFlightRequests.decrementAndGet() == 0L) && this.draining) {
+			Thread drainer = this.drainer;
+			if (drainer != null) {
+				LockSupport.unpark(drainer);
+			}
+		}
+	}
 }
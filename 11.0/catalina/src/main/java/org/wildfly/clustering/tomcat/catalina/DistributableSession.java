@@ -5,6 +5,7 @@
 package org.wildfly.clustering.tomcat.catalina;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Iterator;
 import java.util.List;
@@ -44,13 +45,17 @@ public class DistributableSession implements CatalinaSession {
 	private static final BiConsumer<List<SessionListener>, SessionListener> REMOVE_LISTENER = List::remove;
 
 	private final CatalinaManager manager;
+	// Serializes access by the threads of a single request, since concurrent requests reference distinct instances
 	private final BlockingReference<Session<CatalinaSessionContext>> reference;
-	private final Reference.Reader<CatalinaSessionContext> contextReader;
-	private final Reference.Reader<Map<String, Object>> notesReader;
-	private final Reference.Reader<List<SessionListener>> listenersReader;
 	private final Instant startTime;
+	private final boolean recordAccess;
 	private final AtomicReference<Runnable> closeTask;
-	private final HttpSession session;
+	private final DistributableHttpSession session;
+	// Readers are shared with the HttpSession adapter
+	private final Reference.Reader<Session<CatalinaSessionContext>> reader;
+	private final Reference.Reader<CatalinaSessionContext> contextReader;
+	private final Reference.Reader<Map<String, Object>> notesReader;
+	private final Reference.Reader<String> internalIdReader;
 
 	/**
 	 * Creates a distributable session.
@@ -59,14 +64,27 @@ public class DistributableSession implements CatalinaSession {
 	 * @param closeTask a task to invoke on {@link #endAccess()}.
 	 */
 	public DistributableSession(CatalinaManager manager, Session<CatalinaSessionContext> session, Runnable closeTask) {
+		this(manager, session, closeTask, Duration.ZERO);
+	}
+
+	/**
+	 * Creates a distributable session whose access is recorded at most once within the specified window, e.g. when accessed via its {@link HttpSession.Accessor}.
+	 * @param manager the manager of this session.
+	 * @param session the decorated session
+	 * @param closeTask a task to invoke on {@link #endAccess()}.
+	 * @param accessWindow the window within which at most one access of this session is recorded, or zero, if every access should be recorded.
+	 */
+	DistributableSession(CatalinaManager manager, Session<CatalinaSessionContext> session, Runnable closeTask, Duration accessWindow) {
 		this.manager = manager;
 		this.reference = BlockingReference.of(session);
-		this.contextReader = this.reference.getReader().map(DistributableHttpSession.CONTEXT);
-		this.notesReader = this.reference.getReader().map(DistributableHttpSession.NOTES);
-		this.listenersReader = this.contextReader.map(LISTENERS);
 		this.startTime = session.getMetaData().getLastAccessTime().isEmpty() ? session.getMetaData().getCreationTime() : Instant.now();
+		this.recordAccess = accessWindow.isZero() || session.getContext().recordAccessorAccess(accessWindow);
 		this.closeTask = new AtomicReference<>(closeTask);
 		this.session = new DistributableHttpSession(this.manager, this.reference, this.closeTask);
+		this.reader = this.session.getSessionReader();
+		this.contextReader = this.session.getSessionContextReader();
+		this.notesReader = this.session.getSessionNotesReader();
+		this.internalIdReader = this.reader.map(manager::getInternalIdentifier);
 	}
 
 	@Override
@@ -94,6 +112,11 @@ public class DistributableSession implements CatalinaSession {
 		return this.session.getId();
 	}
 
+	@Override
+	public String getIdInternal() {
+		return this.internalIdReader.get();
+	}
+
 	@Override
 	public long getLastAccessedTime() {
 		return this.session.getLastAccessedTime();
@@ -131,7 +154,7 @@ public class DistributableSession implements CatalinaSession {
 
 	@Override
 	public boolean isValid() {
-		return this.reference.getReader().map(ImmutableSession.VALID.thenBox()).get();
+		return this.reader.map(ImmutableSession.VALID.thenBox()).get();
 	}
 
 	@Override
@@ -140,18 +163,21 @@ public class DistributableSession implements CatalinaSession {
 		Runnable closeTask = this.closeTask.getAndSet(null);
 		if (closeTask != null) {
 			try {
-				this.reference.getReader().read(completeSession -> {
+				try {
+					this.session.detectAttributeChanges();
+				} catch (RuntimeException e) {
+					this.manager.getContext().getLogger().warn(e.getLocalizedMessage(), e);
+				}
+				this.reader.read(completeSession -> {
 					// Ensure session is closed, even if invalid
 					try (Session<CatalinaSessionContext> session = completeSession) {
 						LOGGER.log(System.Logger.Level.TRACE, "DistributableSession.endAccess() for {0}", session.getId());
-						if (session.isValid()) {
-							// According to §7.6 of the servlet specification:
-							// The session is considered to be accessed when a request that is part of the session is first handled by the servlet container.
-							session.getMetaData().setLastAccess(this.startTime, Instant.now());
-						}
+						this.recordAccess(session);
 					} catch (Throwable e) {
-						// Don't propagate exceptions at the stage, since response was already committed
-						this.manager.getContext().getLogger().warn(e.getLocalizedMessage(), e);
+						if (!this.recover(e, completeSession.getId())) {
+							// Don't propagate exceptions at the stage, since response was already committed
+							this.manager.getContext().getLogger().warn(e.getLocalizedMessage(), e);
+						}
 					}
 				});
 			} finally {
@@ -160,14 +186,40 @@ public class DistributableSession implements CatalinaSession {
 		}
 	}
 
+	private void recordAccess(Session<CatalinaSessionContext> session) {
+		// Skip the write of the last access if already recorded within the access window
+		if (this.recordAccess && session.isValid()) {
+			// According to §7.6 of the servlet specification:
+			// The session is considered to be accessed when a request that is part of the session is first handled by the servlet container.
+			session.getMetaData().setLastAccess(this.startTime, Instant.now());
+		}
+	}
+
+	private void replay(Session<CatalinaSessionContext> session) {
+		if (session.isValid()) {
+			this.session.replay(session);
+		}
+		this.recordAccess(session);
+	}
+
+	private boolean recover(Throwable exception, String id) {
+		// If a conflicting request committed first, replay the changes of this request against the session committed by that request
+		try {
+			return this.manager.getCommitConflictHandler().map(handler -> handler.handle(exception, this.session.isReplayable(), this.manager.getSessionManager(), id, this::replay)).orElse(Boolean.FALSE).booleanValue();
+		} catch (RuntimeException e) {
+			exception.addSuppressed(e);
+			return false;
+		}
+	}
+
 	@Override
 	public void addSessionListener(SessionListener listener) {
-		this.listenersReader.read(ADD_LISTENER.composeUnary(Function.identity(), Function.of(listener)));
+		this.contextReader.map(LISTENERS).read(ADD_LISTENER.composeUnary(Function.identity(), Function.of(listener)));
 	}
 
 	@Override
 	public void removeSessionListener(SessionListener listener) {
-		this.listenersReader.read(REMOVE_LISTENER.composeUnary(Function.identity(), Function.of(listener)));
+		this.contextReader.map(LISTENERS).read(REMOVE_LISTENER.composeUnary(Function.identity(), Function.of(listener)));
 	}
 
 	@Override
@@ -212,6 +264,7 @@ public class DistributableSession implements CatalinaSession {
 					newSession.getContext().setPrincipal(currentSession.getContext().getPrincipal());
 					newSession.getContext().getNotes().putAll(currentSession.getContext().getNotes());
 					currentSession.invalidate();
+					DistributableSession.this.session.setNotReplayable();
 					return newSession;
 				} catch (RuntimeException | Error e) {
 					newSession.invalidate();
@@ -0,0 +1,133 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.session.ImmutableSession;
+
+/**
+ * Dispatches expiration notifications of sessions to a fixed number of lanes, each processed by a single thread.
+ * Notifications for different sessions are processed in parallel, while notifications for a given session are always processed, in order, by the same lane.
+ * When the queue of a lane is full, the expiring thread blocks until space is available.
+ * Any rate limit of expiration notifications, e.g. via {@link ExpirationRateLimiter}, should be applied by the dispatched listener, so that it delays the lanes rather than the expiring thread.
+ * Since an expired session is removed once its expiring thread returns, the session is snapshot by the expiring thread before its notification is dispatched.
+ * @author Paul Ferraro
+ */
+public class SessionExpirationDispatcher implements Consumer<ImmutableSession>, AutoCloseable {
+	private static final System.Logger LOGGER = System.getLogger(SessionExpirationDispatcher.class.getCanonicalName());
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+	private final java.util.function.Consumer<ImmutableSession> listener;
+	private final List<ThreadPoolExecutor> lanes;
+	private final LongAdder dispatched = new LongAdder();
+	private final LongAdder blocked = new LongAdder();
+
+	/**
+	 * Creates a session expiration dispatcher.
+	 * @param listener the expiration listener to which notifications are dispatched
+	 * @param threads the number of lanes with which to process notifications
+	 * @param queueLength the maximum number of pending notifications per lane
+	 */
+	public SessionExpirationDispatcher(java.util.function.Consumer<ImmutableSession> listener, int threads, int queueLength) {
+		this.listener = listener;
+		AtomicInteger counter = new AtomicInteger();
+		LongAdder blocked = this.blocked;
+		// Blocks the expiring thread until its notification can be queued
+		RejectedExecutionHandler backpressure = new RejectedExecutionHandler() {
+			@Override
+			public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+				if (executor.isShutdown()) {
+					throw new RejectedExecutionException();
+				}
+				blocked.increment();
+				try {
+					executor.getQueue().put(task);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException(e);
+				}
+			}
+		};
+		this.lanes = IntStream.range(0, threads).mapToObj(i -> new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueLength), task -> {
+			Thread thread = new Thread(task, "session-expiration-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, backpressure)).collect(Collectors.toList());
+	}
+
+	@Override
+	public void accept(ImmutableSession expiredSession) {
+		ImmutableSession session = new ImmutableSessionSnapshot(expiredSession);
+		java.util.function.Consumer<ImmutableSession> listener = this.listener;
+		LongAdder dispatched = this.dispatched;
+		this.lanes.get(Math.floorMod(session.getId().hashCode(), this.lanes.size())).execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					listener.accept(session);
+				} catch (RuntimeException e) {
+					LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+				} finally {
+					dispatched.increment();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the number of expiration notifications pending dispatch.
+	 * @return the number of pending expiration notifications
+	 */
+	public int getQueueSize() {
+		return this.lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum();
+	}
+
+	/**
+	 * Returns the number of expiration notifications dispatched.
+	 * @return the number of dispatched expiration notifications
+	 */
+	public long getDispatchedCount() {
+		return this.dispatched.sum();
+	}
+
+	/**
+	 * Returns the number of times an expiring thread blocked due to a full queue.
+	 * @return the number of times an expiring thread was blocked
+	 */
+	public long getBlockedCount() {
+		return this.blocked.sum();
+	}
+
+	@Override
+	public void close() {
+		// Complete any pending notifications
+		this.lanes.forEach(ThreadPoolExecutor::shutdown);
+		long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+		try {
+			for (ThreadPoolExecutor lane : this.lanes) {
+				if (!lane.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+					LOGGER.log(System.Logger.Level.WARNING, "{0} expiration notifications were not dispatched within {1} s", this.getQueueSize(), SHUTDOWN_TIMEOUT.getSeconds());
+					this.lanes.forEach(ThreadPoolExecutor::shutdownNow);
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.lanes.forEach(ThreadPoolExecutor::shutdownNow);
+		}
+	}
+}
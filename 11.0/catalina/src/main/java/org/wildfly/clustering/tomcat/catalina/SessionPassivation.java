@@ -0,0 +1,23 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.stream.Stream;
+
+import org.wildfly.clustering.function.Predicate;
+
+/**
+ * Passivates the session with a given identifier from local memory, returning true if the session was passivated, false otherwise.
+ * @author Paul Ferraro
+ */
+public interface SessionPassivation extends Predicate<String> {
+
+	/**
+	 * Returns the identifiers of the sessions held in local memory.
+	 * The returned stream must be closed by the caller.
+	 * @return a stream of session identifiers
+	 */
+	Stream<String> getLocalSessionIdentifiers();
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.wildfly.clustering.context.Contextualizer;
+import org.wildfly.clustering.context.ThreadContextClassLoaderReference;
+
+/**
+ * A thread factory that creates contextualized virtual threads.
+ * Virtual threads require a Java 21+ runtime, thus are resolved reflectively.
+ * @author Paul Ferraro
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+	private static final MethodHandle CREATE_FACTORY = findFactoryCreator();
+	private static final MethodHandle CREATE_EXECUTOR = findExecutorCreator();
+
+	private static MethodHandle findFactoryCreator() {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Class<?> virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderClass));
+			MethodHandle factory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+			return MethodHandles.filterReturnValue(ofVirtual, factory.asType(MethodType.methodType(ThreadFactory.class, virtualBuilderClass)));
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static MethodHandle findExecutorCreator() {
+		try {
+			return MethodHandles.publicLookup().findStatic(Executors.class, "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Indicates whether or not the current runtime supports virtual threads.
+	 * @return true, if the current runtime supports virtual threads, false otherwise.
+	 */
+	public static boolean isSupported() {
+		return (CREATE_FACTORY != null) && (CREATE_EXECUTOR != null);
+	}
+
+	private final ThreadFactory factory;
+	private final Contextualizer contextualizer;
+
+	/**
+	 * Creates a factory for creating virtual threads.
+	 * @param loader the class loader to associate with the context of threads created by this factory
+	 * @throws UnsupportedOperationException if the current runtime does not support virtual threads
+	 */
+	public VirtualThreadFactory(ClassLoader loader) {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException();
+		}
+		try {
+			this.factory = (ThreadFactory) CREATE_FACTORY.invoke();
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+		this.contextualizer = Contextualizer.withContextProvider(ThreadContextClassLoaderReference.CURRENT.provide(loader));
+	}
+
+	@Override
+	public Thread newThread(Runnable task) {
+		return this.factory.newThread(this.contextualizer.contextualize(task));
+	}
+
+	/**
+	 * Creates an executor that runs each task on a new virtual thread created by this factory.
+	 * @return an executor that runs each task on a new virtual thread
+	 */
+	public ExecutorService createExecutor() {
+		return createExecutor(this);
+	}
+
+	/**
+	 * Creates an executor that runs each task on a new thread created by the specified factory.
+	 * @param factory a thread factory
+	 * @return an executor that runs each task on a new thread
+	 * @throws UnsupportedOperationException if the current runtime does not support virtual threads
+	 */
+	public static ExecutorService createExecutor(ThreadFactory factory) {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException();
+		}
+		try {
+			return (ExecutorService) CREATE_EXECUTOR.invoke(factory);
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.server.immutable.Immutability;
+
+/**
+ * Unit test for {@link ClassImmutability}.
+ * @author Paul Ferraro
+ */
+public class ClassImmutabilityTestCase {
+	private final Immutability defaultImmutability = mock(Immutability.class);
+
+	@Test
+	public void declaredClass() {
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(), Set.of(Mutable.class.getName()), Set.of());
+
+		assertThat(immutability.test(new Mutable())).isTrue();
+		// Subclasses of a declared class are also immutable
+		assertThat(immutability.test(new MutableSubclass())).isTrue();
+		assertThat(immutability.test(new Implementation())).isFalse();
+
+		verify(this.defaultImmutability, never()).test(any(Mutable.class));
+	}
+
+	@Test
+	public void declaredInterface() {
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(), Set.of(Marker.class.getName()), Set.of());
+
+		assertThat(immutability.test(new Implementation())).isTrue();
+		assertThat(immutability.test(new ImplementationSubclass())).isTrue();
+		assertThat(immutability.test(new Mutable())).isFalse();
+
+		verify(this.defaultImmutability, never()).test(any(Implementation.class));
+	}
+
+	@Test
+	public void declaredPackage() {
+		// Packages include their subpackages
+		assertThat(new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of(ClassImmutabilityTestCase.class.getPackageName())).test(new Mutable())).isTrue();
+		assertThat(new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of("org.wildfly.clustering.tomcat")).test(new Mutable())).isTrue();
+		// Package names are not matched by prefix
+		assertThat(new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of("org.wildfly.clustering.tomcat.cat")).test(new Mutable())).isFalse();
+		assertThat(new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of(ClassImmutabilityTestCase.class.getPackageName() + ".sub")).test(new Mutable())).isFalse();
+	}
+
+	@Test
+	public void memoized() {
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of());
+		doReturn(true).when(this.defaultImmutability).test(any(Implementation.class));
+
+		assertThat(immutability.test(new Mutable())).isFalse();
+		assertThat(immutability.test(new Mutable())).isFalse();
+		assertThat(immutability.test(new Implementation())).isTrue();
+		assertThat(immutability.test(new Implementation())).isTrue();
+
+		// Default immutability is consulted once per class
+		verify(this.defaultImmutability, times(1)).test(any(Mutable.class));
+		verify(this.defaultImmutability, times(1)).test(any(Implementation.class));
+	}
+
+	@Test
+	public void container() {
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of());
+		List<Object> list = new ArrayList<>();
+		Map<String, Object> map = Map.of();
+		doReturn(true).when(this.defaultImmutability).test(map);
+
+		assertThat(immutability.test(list)).isFalse();
+		assertThat(immutability.test(list)).isFalse();
+		assertThat(immutability.test(map)).isTrue();
+		assertThat(immutability.test(map)).isTrue();
+
+		// Immutability of a container depends on its contents, and is therefore never memoized
+		verify(this.defaultImmutability, times(2)).test(list);
+		verify(this.defaultImmutability, times(2)).test(map);
+	}
+
+	@Test
+	public void application() {
+		Immutability applicationImmutability = mock(Immutability.class);
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(applicationImmutability), Set.of(), Set.of());
+		Mutable mutable = new Mutable();
+		Mutable immutable = new Mutable();
+		doReturn(true).when(applicationImmutability).test(immutable);
+
+		assertThat(immutability.test(mutable)).isFalse();
+		assertThat(immutability.test(immutable)).isTrue();
+		assertThat(immutability.test(mutable)).isFalse();
+
+		// Application immutabilities are consulted per instance, but the default immutability is not re-evaluated
+		verify(this.defaultImmutability, times(1)).test(any());
+		verify(applicationImmutability, times(2)).test(mutable);
+		verify(applicationImmutability, times(1)).test(immutable);
+	}
+
+	@Test
+	public void nullValue() {
+		Immutability immutability = new ClassImmutability(this.defaultImmutability, List.of(), Set.of(), Set.of());
+
+		assertThat(immutability.test(null)).isTrue();
+
+		verifyNoInteractions(this.defaultImmutability);
+	}
+
+	static class Mutable {
+	}
+
+	static class MutableSubclass extends Mutable {
+	}
+
+	interface Marker {
+	}
+
+	static class Implementation implements Marker {
+	}
+
+	static class ImplementationSubclass extends Implementation {
+	}
+}
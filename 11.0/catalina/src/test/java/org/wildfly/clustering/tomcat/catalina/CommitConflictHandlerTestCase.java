@@ -0,0 +1,107 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Unit test for {@link CommitConflictHandler}.
+ * @author Paul Ferraro
+ */
+public class CommitConflictHandlerTestCase {
+	private final SessionManager<CatalinaSessionContext> manager = mock(SessionManager.class);
+	private final Session<CatalinaSessionContext> session = mock(Session.class);
+	private final Consumer<Session<CatalinaSessionContext>> task = mock(Consumer.class);
+	private final CommitConflictHandler handler = new CommitConflictHandler(ConflictException.class::isInstance, 2);
+
+	@Test
+	public void notConflict() {
+		assertThat(this.handler.handle(new IllegalStateException(), true, this.manager, "foo", this.task)).isFalse();
+
+		verifyNoInteractions(this.manager, this.task);
+		assertThat(this.handler.getConflictCount()).isZero();
+	}
+
+	@Test
+	public void recovered() {
+		doReturn(this.session).when(this.manager).findSession("foo");
+
+		// Conflict may be the cause of the thrown exception
+		assertThat(this.handler.handle(new IllegalStateException(new ConflictException()), true, this.manager, "foo", this.task)).isTrue();
+
+		verify(this.task).accept(this.session);
+		verify(this.session).close();
+		assertThat(this.handler.getConflictCount()).isOne();
+		assertThat(this.handler.getRecoveredCount()).isOne();
+		assertThat(this.handler.getLostCount()).isZero();
+	}
+
+	@Test
+	public void suppressed() {
+		doReturn(this.session).when(this.manager).findSession("foo");
+		// e.g. a conflict suppressed by the rollback exception of a failed commit
+		Exception rollback = new Exception();
+		rollback.addSuppressed(new ConflictException());
+
+		assertThat(this.handler.handle(new IllegalStateException(rollback), true, this.manager, "foo", this.task)).isTrue();
+
+		verify(this.task).accept(this.session);
+		assertThat(this.handler.getConflictCount()).isOne();
+		assertThat(this.handler.getRecoveredCount()).isOne();
+	}
+
+	@Test
+	public void cyclic() {
+		IllegalStateException exception = new IllegalStateException();
+		Exception rollback = new Exception(exception);
+		exception.addSuppressed(rollback);
+
+		assertThat(this.handler.handle(exception, true, this.manager, "foo", this.task)).isFalse();
+
+		verifyNoInteractions(this.manager, this.task);
+	}
+
+	@Test
+	public void lost() {
+		// Changes that cannot be replayed fail the commit
+		assertThat(this.handler.handle(new ConflictException(), false, this.manager, "foo", this.task)).isFalse();
+
+		verifyNoInteractions(this.manager, this.task);
+		assertThat(this.handler.getConflictCount()).isOne();
+		assertThat(this.handler.getRecoveredCount()).isZero();
+		assertThat(this.handler.getLostCount()).isOne();
+	}
+
+	@Test
+	public void exhausted() {
+		doThrow(new ConflictException()).when(this.manager).findSession("foo");
+
+		assertThat(this.handler.handle(new ConflictException(), true, this.manager, "foo", this.task)).isFalse();
+
+		verify(this.manager, times(2)).findSession("foo");
+		verifyNoInteractions(this.task);
+		assertThat(this.handler.getConflictCount()).isOne();
+		assertThat(this.handler.getRecoveredCount()).isZero();
+		assertThat(this.handler.getLostCount()).isOne();
+	}
+
+	@Test
+	public void failed() {
+		IllegalStateException exception = new IllegalStateException();
+		doThrow(exception).when(this.manager).findSession("foo");
+
+		assertThatThrownBy(() -> this.handler.handle(new ConflictException(), true, this.manager, "foo", this.task)).isSameAs(exception);
+	}
+
+	private static class ConflictException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.catalina.Context;
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.server.immutable.Immutability;
+import org.wildfly.clustering.server.util.BlockingReference;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Unit test for {@link DistributableHttpSession}.
+ * @author Paul Ferraro
+ */
+public class DistributableHttpSessionTestCase {
+	private final CatalinaManager manager = mock(CatalinaManager.class);
+	private final Context context = mock(Context.class);
+	private final Session<CatalinaSessionContext> session = mock(Session.class);
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	private final Map<String, Object> attributes = new HashMap<>();
+
+	public DistributableHttpSessionTestCase() {
+		doReturn(this.context).when(this.manager).getContext();
+		doReturn(new Object[0]).when(this.context).getApplicationEventListeners();
+		doReturn(true).when(this.session).isValid();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(this.attributes).when(this.session).getAttributes();
+	}
+
+	@Test
+	public void replay() {
+		DistributableHttpSession session = new DistributableHttpSession(this.manager, BlockingReference.of(this.session), new AtomicReference<>());
+		this.attributes.put("baz", "qux");
+
+		session.setAttribute("foo", "bar");
+		session.removeAttribute("baz");
+		session.setAttribute("qux", "foo");
+		session.setAttribute("qux", null);
+		session.setMaxInactiveInterval(60);
+
+		assertThat(session.isReplayable()).isTrue();
+
+		// Replay against the session committed by a concurrent request
+		Session<CatalinaSessionContext> currentSession = mock(Session.class);
+		SessionMetaData currentMetaData = mock(SessionMetaData.class);
+		Map<String, Object> currentAttributes = new HashMap<>(Map.of("foo", "baz", "baz", "qux", "qux", "qux", "bar", "baz"));
+		doReturn(currentMetaData).when(currentSession).getMetaData();
+		doReturn(currentAttributes).when(currentSession).getAttributes();
+
+		session.replay(currentSession);
+
+		assertThat(currentAttributes).containsExactlyInAnyOrderEntriesOf(Map.of("foo", "bar", "bar", "baz"));
+		verify(currentMetaData).setMaxIdle(Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void mutableRead() {
+		doReturn(mock(Immutability.class)).when(this.manager).getImmutability();
+		DistributableHttpSession session = new DistributableHttpSession(this.manager, BlockingReference.of(this.session), new AtomicReference<>());
+		this.attributes.put("foo", new StringBuilder("bar"));
+
+		session.getAttribute("foo");
+
+		// Mutations of an attribute cannot be replayed without change detection
+		assertThat(session.isReplayable()).isFalse();
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.ImmutableSession;
+
+/**
+ * Unit test for {@link ExpirationRateLimiter}.
+ * @author Paul Ferraro
+ */
+public class ExpirationRateLimiterTestCase {
+
+	private final Consumer<ImmutableSession> listener = mock(Consumer.class);
+	private final ImmutableSession session = mock(ImmutableSession.class);
+
+	@Test
+	public void burst() {
+		ExpirationRateLimiter limiter = new ExpirationRateLimiter(this.listener, 1, 5);
+
+		for (int i = 0; i < 5; ++i) {
+			limiter.accept(this.session);
+		}
+
+		// Expirations within the burst capacity are not delayed
+		verify(this.listener, times(5)).accept(this.session);
+		assertThat(limiter.getThrottledCount()).isZero();
+		assertThat(limiter.getThrottleTime()).isZero();
+	}
+
+	@Test
+	public void throttle() {
+		ExpirationRateLimiter limiter = new ExpirationRateLimiter(this.listener, 20, 1);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; ++i) {
+			limiter.accept(this.session);
+		}
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		// Expirations beyond the burst capacity are spaced 50 ms apart
+		verify(this.listener, times(3)).accept(this.session);
+		assertThat(limiter.getThrottledCount()).isEqualTo(2L);
+		assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+		assertThat(limiter.getThrottleTime()).isGreaterThanOrEqualTo(80L);
+	}
+
+	@Test
+	public void interrupt() {
+		ExpirationRateLimiter limiter = new ExpirationRateLimiter(this.listener, 1, 1);
+
+		limiter.accept(this.session);
+		Thread.currentThread().interrupt();
+		try {
+			long start = System.nanoTime();
+			limiter.accept(this.session);
+
+			// An interrupted thread is not delayed, but its listener is still notified
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+			assertThat(Thread.currentThread().isInterrupted()).isTrue();
+		} finally {
+			Thread.interrupted();
+		}
+
+		verify(this.listener, times(2)).accept(this.session);
+		assertThat(limiter.getThrottledCount()).isEqualTo(1L);
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link IdleSessionPassivator}.
+ * @author Paul Ferraro
+ */
+public class IdleSessionPassivatorTestCase {
+	private final Set<String> localSessions = ConcurrentHashMap.newKeySet();
+	private final List<String> passivated = new ArrayList<>();
+	private final SessionPassivation passivation = new SessionPassivation() {
+		@Override
+		public Stream<String> getLocalSessionIdentifiers() {
+			return List.copyOf(IdleSessionPassivatorTestCase.this.localSessions).stream();
+		}
+
+		@Override
+		public boolean test(String id) {
+			IdleSessionPassivatorTestCase.this.passivated.add(id);
+			return IdleSessionPassivatorTestCase.this.localSessions.remove(id);
+		}
+	};
+
+	@Test
+	public void observed() {
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ZERO, 10, this.passivation);
+		this.localSessions.add("foo");
+
+		// Idle time of a session never used by a local request starts when first observed
+		passivator.run();
+		assertThat(this.passivated).isEmpty();
+
+		passivator.run();
+		assertThat(this.passivated).containsExactly("foo");
+		assertThat(passivator.getPassivatedCount()).isOne();
+	}
+
+	@Test
+	public void idle() {
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ofHours(1), 10, this.passivation);
+		this.localSessions.add("foo");
+		passivator.begin("foo");
+		passivator.end("foo");
+
+		passivator.run();
+		passivator.run();
+
+		assertThat(this.passivated).isEmpty();
+		assertThat(passivator.getPassivatedCount()).isZero();
+	}
+
+	@Test
+	public void inUse() {
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ZERO, 10, this.passivation);
+		this.localSessions.add("foo");
+
+		// Concurrent requests for the same session
+		passivator.begin("foo");
+		passivator.begin("foo");
+		passivator.run();
+		passivator.end("foo");
+		passivator.run();
+		passivator.run();
+
+		assertThat(this.passivated).isEmpty();
+
+		passivator.end("foo");
+		passivator.run();
+
+		assertThat(this.passivated).containsExactly("foo");
+	}
+
+	@Test
+	public void batch() {
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ZERO, 2, this.passivation);
+		this.localSessions.addAll(Set.of("foo", "bar", "baz"));
+
+		passivator.run();
+		passivator.run();
+
+		assertThat(this.passivated).hasSize(2);
+		assertThat(this.localSessions).hasSize(1);
+
+		passivator.run();
+
+		assertThat(this.passivated).containsExactlyInAnyOrder("foo", "bar", "baz");
+		assertThat(this.localSessions).isEmpty();
+		assertThat(passivator.getPassivatedCount()).isEqualTo(3L);
+	}
+
+	@Test
+	public void nonLocal() {
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ZERO, 10, this.passivation);
+
+		// Session found by a request, but not held in local memory
+		passivator.begin("foo");
+		passivator.end("foo");
+		passivator.run();
+
+		assertThat(this.passivated).isEmpty();
+
+		// Once held locally, its idle time starts when observed
+		this.localSessions.add("foo");
+		passivator.run();
+
+		assertThat(this.passivated).isEmpty();
+
+		passivator.run();
+
+		assertThat(this.passivated).containsExactly("foo");
+	}
+
+	@Test
+	public void concurrentBegin() throws Exception {
+		CountDownLatch passivating = new CountDownLatch(1);
+		CountDownLatch passivated = new CountDownLatch(1);
+		SessionPassivation passivation = new SessionPassivation() {
+			@Override
+			public Stream<String> getLocalSessionIdentifiers() {
+				return List.copyOf(IdleSessionPassivatorTestCase.this.localSessions).stream();
+			}
+
+			@Override
+			public boolean test(String id) {
+				passivating.countDown();
+				try {
+					passivated.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+				return IdleSessionPassivatorTestCase.this.localSessions.remove(id);
+			}
+		};
+		IdleSessionPassivator passivator = new IdleSessionPassivator(Duration.ZERO, 10, passivation);
+		this.localSessions.add("foo");
+		passivator.run();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Thread request = new Thread(() -> passivator.begin("foo"));
+		try {
+			Future<?> run = executor.submit(passivator);
+			passivating.await();
+
+			// A request cannot begin using a session while it is being passivated
+			request.start();
+			while (request.getState() != Thread.State.WAITING) {
+				assertThat(request.isAlive()).isTrue();
+				Thread.yield();
+			}
+
+			passivated.countDown();
+			run.get();
+			request.join();
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(passivator.getPassivatedCount()).isOne();
+
+		// Session reloaded by the request is not passivated while in use
+		this.localSessions.add("foo");
+		passivator.run();
+		passivator.run();
+
+		assertThat(passivator.getPassivatedCount()).isOne();
+
+		passivator.end("foo");
+		passivator.run();
+
+		assertThat(passivator.getPassivatedCount()).isEqualTo(2L);
+	}
+}
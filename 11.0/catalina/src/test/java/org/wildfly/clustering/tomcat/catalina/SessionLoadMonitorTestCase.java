@@ -0,0 +1,71 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link SessionLoadMonitor}.
+ * @author Paul Ferraro
+ */
+public class SessionLoadMonitorTestCase {
+
+	@Test
+	public void untimed() throws Exception {
+		SessionLoadMonitor monitor = new SessionLoadMonitor(Optional.empty());
+		AutoCloseable session = mock(AutoCloseable.class);
+
+		assertThat(monitor.load("foo", () -> session, () -> fail("Unexpected asynchronous load"))).isSameAs(session);
+
+		assertThat(monitor.getTimeoutCount()).isZero();
+		assertThat(monitor.getHistogram()).startsWith("<=1ms:1");
+		verify(session, never()).close();
+	}
+
+	@Test
+	public void timed() throws Exception {
+		SessionLoadMonitor monitor = new SessionLoadMonitor(Optional.of(Duration.ofMinutes(1)));
+		AutoCloseable session = mock(AutoCloseable.class);
+
+		assertThat(monitor.load("foo", () -> fail("Unexpected blocking load"), () -> CompletableFuture.completedStage(session))).isSameAs(session);
+
+		assertThat(monitor.getTimeoutCount()).isZero();
+		verify(session, never()).close();
+	}
+
+	@Test
+	public void timeout() throws Exception {
+		SessionLoadMonitor monitor = new SessionLoadMonitor(Optional.of(Duration.ofMillis(10)));
+		AutoCloseable session = mock(AutoCloseable.class);
+		CompletableFuture<AutoCloseable> future = new CompletableFuture<>();
+
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> monitor.load("foo", () -> fail("Unexpected blocking load"), () -> future));
+
+		assertThat(monitor.getTimeoutCount()).isOne();
+		assertThat(monitor.getMaxTime()).isGreaterThanOrEqualTo(10L);
+
+		// Session loaded after its caller stopped waiting must be closed
+		future.complete(session);
+		verify(session).close();
+	}
+
+	@Test
+	public void failure() throws Exception {
+		SessionLoadMonitor monitor = new SessionLoadMonitor(Optional.of(Duration.ofMinutes(1)));
+		IllegalArgumentException exception = new IllegalArgumentException();
+
+		assertThatThrownBy(() -> monitor.load("foo", () -> fail("Unexpected blocking load"), () -> CompletableFuture.<AutoCloseable>failedStage(exception))).isSameAs(exception);
+
+		// A failure of the load itself is not a timeout
+		assertThat(monitor.getTimeoutCount()).isZero();
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.context.Contextualizer;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Unit test for {@link SessionPreloader}.
+ * @author Paul Ferraro
+ */
+public class SessionPreloaderTestCase {
+
+	private final SessionManager<CatalinaSessionContext> manager = mock(SessionManager.class);
+	private final Contextualizer contextualizer = mock(Contextualizer.class);
+
+	public SessionPreloaderTestCase() {
+		doAnswer(invocation -> invocation.getArgument(0)).when(this.contextualizer).contextualize(any(Runnable.class));
+	}
+
+	@Test
+	public void preload() throws InterruptedException {
+		List<String> identifiers = List.of("foo", "bar", "baz", "qux");
+		CountDownLatch latch = new CountDownLatch(identifiers.size());
+		ImmutableSession foo = this.createSession(true, latch);
+		ImmutableSession bar = this.createSession(false, latch);
+		ImmutableSession qux = this.createSession(true, latch);
+
+		doReturn(foo).when(this.manager).findImmutableSession("foo");
+		doReturn(bar).when(this.manager).findImmutableSession("bar");
+		doAnswer(invocation -> {
+			latch.countDown();
+			throw new IllegalStateException();
+		}).when(this.manager).findImmutableSession("baz");
+		doReturn(qux).when(this.manager).findImmutableSession("qux");
+
+		try (SessionPreloader preloader = new SessionPreloader(this.manager, this.contextualizer, 2, 0)) {
+			preloader.preload(identifiers);
+
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+
+		verify(this.contextualizer, times(2)).contextualize(any(Runnable.class));
+		// Attributes are only loaded for valid sessions, and a failure does not prevent subsequent sessions from loading
+		verify(foo).getAttributes();
+		verify(bar, never()).getAttributes();
+		verify(qux).getAttributes();
+		for (String id : identifiers) {
+			verify(this.manager).findImmutableSession(id);
+		}
+	}
+
+	@Test
+	public void rate() throws InterruptedException {
+		List<String> identifiers = List.of("foo", "bar", "baz");
+		CountDownLatch latch = new CountDownLatch(identifiers.size());
+		ImmutableSession session = this.createSession(true, latch);
+		doReturn(session).when(this.manager).findImmutableSession(anyString());
+
+		try (SessionPreloader preloader = new SessionPreloader(this.manager, this.contextualizer, 2, 10)) {
+			long start = System.nanoTime();
+			preloader.preload(identifiers);
+
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			// Only the first session may load immediately, subsequent sessions are spaced 100 ms apart, regardless of thread count
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+		}
+
+		verify(this.manager, times(identifiers.size())).findImmutableSession(anyString());
+		verify(this.manager, never()).findSession(anyString());
+	}
+
+	@Test
+	public void empty() {
+		try (SessionPreloader preloader = new SessionPreloader(this.manager, this.contextualizer, 2, 0)) {
+			preloader.preload(List.of());
+		}
+
+		verifyNoInteractions(this.manager, this.contextualizer);
+	}
+
+	@Test
+	public void terminate() throws InterruptedException {
+		List<String> identifiers = List.of("foo", "bar", "baz");
+		CountDownLatch latch = new CountDownLatch(identifiers.size());
+		ImmutableSession session = this.createSession(true, latch);
+		doReturn(session).when(this.manager).findImmutableSession(anyString());
+
+		SessionPreloader preloader = new SessionPreloader(this.manager, this.contextualizer, 2, 0);
+		preloader.preload(identifiers);
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// Threads terminate once all sessions are loaded, without closing the preloader
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (Thread.getAllStackTraces().keySet().stream().map(Thread::getName).anyMatch(name -> name.startsWith("session-preloader-")) && (System.nanoTime() < deadline)) {
+			Thread.sleep(10);
+		}
+		assertThat(Thread.getAllStackTraces().keySet()).extracting(Thread::getName).noneMatch(name -> name.startsWith("session-preloader-"));
+	}
+
+	private ImmutableSession createSession(boolean valid, CountDownLatch latch) {
+		ImmutableSession session = mock(ImmutableSession.class);
+		doAnswer(invocation -> {
+			latch.countDown();
+			return valid;
+		}).when(session).isValid();
+		doReturn(Map.of()).when(session).getAttributes();
+		return session;
+	}
+}
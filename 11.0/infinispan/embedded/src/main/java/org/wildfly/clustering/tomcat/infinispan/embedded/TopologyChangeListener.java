@@ -0,0 +1,35 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.embedded;
+
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+
+/**
+ * A cache listener that runs a task following a change to the topology of a cache.
+ * @author Paul Ferraro
+ */
+@Listener(observation = Listener.Observation.POST)
+public class TopologyChangeListener {
+	private final Runnable task;
+
+	/**
+	 * Creates a cache topology listener.
+	 * @param task a task to run following a topology change
+	 */
+	public TopologyChangeListener(Runnable task) {
+		this.task = task;
+	}
+
+	/**
+	 * Runs the associated task following a change to the cache topology.
+	 * @param event a topology changed event
+	 */
+	@TopologyChanged
+	public void topologyChanged(TopologyChangedEvent<?, ?> event) {
+		this.task.run();
+	}
+}
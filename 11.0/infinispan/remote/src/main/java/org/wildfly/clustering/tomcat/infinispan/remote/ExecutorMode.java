@@ -0,0 +1,18 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.remote;
+
+/**
+ * Enumerates the strategies for executing asynchronous HotRod client operations.
+ * @author Paul Ferraro
+ */
+public enum ExecutorMode {
+	/** Each manager uses a dedicated thread pool. */
+	DEDICATED,
+	/** All managers share a single bounded thread pool. */
+	SHARED,
+	/** Each task runs on a new virtual thread.  Requires a Java 21+ runtime. */
+	VIRTUAL,
+}
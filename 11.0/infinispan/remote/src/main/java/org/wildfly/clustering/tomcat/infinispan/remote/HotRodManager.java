@@ -11,6 +11,8 @@ import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
 
 import jakarta.servlet.ServletContext;
 
@@ -41,12 +43,14 @@ import org.wildfly.clustering.session.infinispan.remote.HotRodSessionManagerFact
 import org.wildfly.clustering.tomcat.SessionMarshallerFactory;
 import org.wildfly.clustering.tomcat.catalina.AbstractManager;
 import org.wildfly.clustering.tomcat.catalina.CatalinaSessionContext;
+import org.wildfly.clustering.tomcat.catalina.VirtualThreadFactory;
 
 /**
  * Distributed {@link org.apache.catalina.Manager} that persists sessions to a remote Infinispan cluster.
  * @author Paul Ferraro
  */
 public class HotRodManager extends AbstractManager {
+	private static final System.Logger LOGGER = System.getLogger(HotRodManager.class.getCanonicalName());
 
 	private final Properties properties = new Properties();
 
@@ -75,6 +79,8 @@ public class HotRodManager extends AbstractManager {
 }
 """;
 	private volatile URI uri;
+	private volatile ExecutorMode executorMode = ExecutorMode.DEDICATED;
+	private volatile IntSupplier pendingTasks = () -> 0;
 
 	/**
 	 * Creates a new distributed manager.
@@ -115,11 +121,32 @@ public class HotRodManager extends AbstractManager {
 		this.configuration = configuration;
 	}
 
+	/**
+	 * Specifies the strategy for executing asynchronous HotRod client operations.
+	 * @param mode the name of an executor mode
+	 */
+	public void setExecutor(String mode) {
+		this.executorMode = ExecutorMode.valueOf(mode);
+	}
+
+	/**
+	 * Returns the number of asynchronous HotRod client operations pending execution.
+	 * For a shared executor, this includes the pending operations of all managers.
+	 * @return the number of pending asynchronous operations
+	 */
+	public int getPendingTaskCount() {
+		return this.pendingTasks.getAsInt();
+	}
+
 	@Override
 	protected Map.Entry<SessionManagerFactory<ServletContext, CatalinaSessionContext>, UnaryOperator<String>> createSessionManagerFactory(SessionManagerFactoryConfiguration<CatalinaSessionContext> config, String localRoute, Consumer<Runnable> stopTasks) {
 		ClassLoader containerLoader = HotRodSessionManagerFactory.class.getClassLoader();
 		Marshaller marshaller = new UserMarshaller(MediaTypes.WILDFLY_PROTOSTREAM, SessionMarshallerFactory.PROTOSTREAM.apply(UnaryOperator.of(null), containerLoader));
-		ThreadPoolExecutor executor = new DefaultAsyncExecutorFactory().getExecutor(this.properties);
+		ExecutorService executor = this.createExecutor();
+		stopTasks.accept(() -> this.pendingTasks = () -> 0);
+		if (executor instanceof SharedExecutorService) {
+			stopTasks.accept(((SharedExecutorService) executor)::close);
+		}
 		Configuration configuration = Optional.ofNullable(this.uri).map(HotRodURI::create).map(HotRodURI::toConfigurationBuilder).orElseGet(ConfigurationBuilder::new)
 				.withProperties(this.properties)
 				.asyncExecutorFactory().factory(new ExecutorFactory() {
@@ -167,4 +194,40 @@ public class HotRodManager extends AbstractManager {
 			}
 		}), UnaryOperator.of(localRoute));
 	}
+
+	private ExecutorService createExecutor() {
+		ExecutorMode mode = this.executorMode;
+		if ((mode == ExecutorMode.VIRTUAL) && !VirtualThreadFactory.isSupported()) {
+			LOGGER.log(System.Logger.Level.WARNING, "Virtual threads are not supported by this runtime, using {0} executor instead", ExecutorMode.DEDICATED);
+			mode = ExecutorMode.DEDICATED;
+		}
+		switch (mode) {
+			case SHARED: {
+				SharedExecutorService executor = new SharedExecutorService(this.properties, HotRodSessionManagerFactory.class.getClassLoader());
+				this.pendingTasks = executor::getQueueSize;
+				return executor;
+			}
+			case VIRTUAL: {
+				VirtualThreadFactory factory = new VirtualThreadFactory(HotRodSessionManagerFactory.class.getClassLoader());
+				// Each task runs on its own thread, thus pending tasks are those whose thread has not yet completed
+				LongAdder tasks = new LongAdder();
+				this.pendingTasks = tasks::intValue;
+				return VirtualThreadFactory.createExecutor(task -> {
+					tasks.increment();
+					return factory.newThread(() -> {
+						try {
+							task.run();
+						} finally {
+							tasks.decrement();
+						}
+					});
+				});
+			}
+			default: {
+				ThreadPoolExecutor executor = new DefaultAsyncExecutorFactory().getExecutor(this.properties);
+				this.pendingTasks = () -> executor.getQueue().size();
+				return executor;
+			}
+		}
+	}
 }
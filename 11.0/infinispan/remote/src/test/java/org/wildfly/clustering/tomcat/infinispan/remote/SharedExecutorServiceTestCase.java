@@ -0,0 +1,115 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.infinispan.remote;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link SharedExecutorService}.
+ * @author Paul Ferraro
+ */
+public class SharedExecutorServiceTestCase {
+	private static final String POOL_SIZE = "infinispan.client.hotrod.default_executor_factory.pool_size";
+	private static final ClassLoader LOADER = SharedExecutorService.class.getClassLoader();
+
+	@Test
+	public void share() {
+		Properties properties = new Properties();
+		properties.setProperty(POOL_SIZE, "2");
+		Properties sameProperties = new Properties();
+		sameProperties.setProperty(POOL_SIZE, "2");
+		// Properties unrelated to the executor do not affect sharing
+		sameProperties.setProperty("infinispan.client.hotrod.socket_timeout", "1000");
+		Properties otherProperties = new Properties();
+		otherProperties.setProperty(POOL_SIZE, "4");
+
+		try (SharedExecutorService executor = new SharedExecutorService(properties, LOADER)) {
+			try (SharedExecutorService sameExecutor = new SharedExecutorService(sameProperties, LOADER)) {
+				try (SharedExecutorService otherExecutor = new SharedExecutorService(otherProperties, LOADER)) {
+					assertThat(sameExecutor.pool).isSameAs(executor.pool);
+					assertThat(otherExecutor.pool).isNotSameAs(executor.pool);
+				}
+				assertThat(executor.pool.isShutdown()).isFalse();
+			}
+			assertThat(executor.pool.isShutdown()).isFalse();
+		}
+	}
+
+	@Test
+	public void close() {
+		SharedExecutorService executor = new SharedExecutorService(new Properties(), LOADER);
+		executor.close();
+
+		assertThat(executor.pool.isShutdown()).isTrue();
+	}
+
+	@Test
+	public void awaitTermination() throws InterruptedException {
+		try (SharedExecutorService executor = new SharedExecutorService(new Properties(), LOADER)) {
+			try (SharedExecutorService otherExecutor = new SharedExecutorService(new Properties(), LOADER)) {
+				CountDownLatch latch = new CountDownLatch(1);
+				CountDownLatch otherLatch = new CountDownLatch(1);
+				executor.execute(() -> await(latch));
+				otherExecutor.execute(() -> await(otherLatch));
+
+				executor.shutdown();
+
+				assertThat(executor.isShutdown()).isTrue();
+				assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> executor.execute(() -> {}));
+				assertThat(executor.isTerminated()).isFalse();
+				assertThat(executor.awaitTermination(10, TimeUnit.MILLISECONDS)).isFalse();
+
+				latch.countDown();
+
+				// Termination of a view does not await tasks of other views
+				assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+				assertThat(executor.isTerminated()).isTrue();
+				assertThat(otherExecutor.isTerminated()).isFalse();
+
+				otherLatch.countDown();
+			}
+		}
+	}
+
+	@Test
+	public void contextClassLoader() throws InterruptedException {
+		ClassLoader webappLoader = new ClassLoader() {};
+		AtomicReference<ClassLoader> result = new AtomicReference<>();
+		try (SharedExecutorService executor = new SharedExecutorService(new Properties(), LOADER)) {
+			CountDownLatch latch = new CountDownLatch(1);
+			Thread thread = Thread.currentThread();
+			ClassLoader currentLoader = thread.getContextClassLoader();
+			thread.setContextClassLoader(webappLoader);
+			try {
+				executor.execute(() -> {
+					result.set(Thread.currentThread().getContextClassLoader());
+					latch.countDown();
+				});
+			} finally {
+				thread.setContextClassLoader(currentLoader);
+			}
+			latch.await();
+		}
+
+		// Threads of the shared pool must not reference the class loader of the web application that created them
+		assertThat(result.get()).isSameAs(LOADER);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
+import org.wildfly.clustering.server.immutable.Immutability;
+import org.wildfly.clustering.session.Session;
+
+/**
+ * Detects changes to mutable session attributes by comparing a hash of their marshalled form against that taken when first read by the same request.
+ * When enabled, the session manager treats a mutable attribute read via the session adapter as immutable, i.e. its read no longer implies a write, provided its baseline hash could be recorded.
+ * Instead, the mutable attributes read by a request are re-written at the end of the request only if their marshalled form has changed.
+ * Any other attribute, e.g. one whose marshalled form cannot be hashed, is subject to the configured immutability.
+ * Since the baseline of an attribute is taken from the state of the session loaded by the same request, a stale baseline cannot suppress a write.
+ * @author Paul Ferraro
+ */
+public class AttributeChangeDetector {
+	private final ByteBufferMarshaller marshaller;
+	private final Immutability immutability;
+	private final Immutability sessionImmutability;
+	// The name of the attribute read by the current thread via the session adapter, and the baselines of its request
+	private final ThreadLocal<Map.Entry<String, Map<String, OptionalLong>>> reads = new ThreadLocal<>();
+	private final LongAdder suppressed = new LongAdder();
+	private final LongAdder detected = new LongAdder();
+
+	/**
+	 * Creates an attribute change detector.
+	 * @param marshaller the session attribute marshaller
+	 * @param immutability the immutability of session attributes
+	 */
+	public AttributeChangeDetector(ByteBufferMarshaller marshaller, Immutability immutability) {
+		this.marshaller = marshaller;
+		this.immutability = immutability;
+		this.sessionImmutability = value -> this.immutability.test(value) || this.record(value);
+	}
+
+	/**
+	 * Returns the session manager immutability to use in conjunction with change detection.
+	 * @return the immutability of session attributes, as seen by the session manager
+	 */
+	Immutability getSessionImmutability() {
+		return this.sessionImmutability;
+	}
+
+	/**
+	 * Reads the specified session attribute on behalf of the current request.
+	 * If the session manager consults its immutability for a mutable attribute, the hash of its marshalled form is recorded, unless already read by the current request.
+	 * @param <T> the attribute value type
+	 * @param baselines the hashes of the mutable attributes read by the current request, keyed by attribute name
+	 * @param name an attribute name
+	 * @param reader a reader of the attribute value from the session manager
+	 * @return the attribute value
+	 */
+	<T> T read(Map<String, OptionalLong> baselines, String name, Supplier<T> reader) {
+		this.reads.set(Map.entry(name, baselines));
+		try {
+			return reader.get();
+		} finally {
+			this.reads.remove();
+		}
+	}
+
+	private boolean record(Object value) {
+		Map.Entry<String, Map<String, OptionalLong>> read = this.reads.get();
+		if (read == null) return false;
+		Map<String, OptionalLong> baselines = read.getValue();
+		OptionalLong baseline = baselines.get(read.getKey());
+		if (baseline == null) {
+			baseline = this.hash(value);
+			// Only suppress the write of an attribute with a recorded baseline
+			if (baseline.isEmpty()) return false;
+			baselines.put(read.getKey(), baseline);
+		}
+		return true;
+	}
+
+	/**
+	 * Records the write or removal of the specified session attribute by the current request, which will be persisted by the session manager.
+	 * @param baselines the hashes of the mutable attributes read by the current request, keyed by attribute name
+	 * @param name an attribute name
+	 */
+	void written(Map<String, OptionalLong> baselines, String name) {
+		baselines.remove(name);
+	}
+
+	/**
+	 * Re-writes those mutable attributes read by the current request whose marshalled form has changed.
+	 * @param session a valid session
+	 * @param baselines the hashes of the mutable attributes read by the current request, keyed by attribute name
+	 * @param rewritten a consumer of the name and value of each re-written attribute
+	 * @return true, if any attribute was re-written, false otherwise
+	 */
+	boolean detect(Session<CatalinaSessionContext> session, Map<String, OptionalLong> baselines, BiConsumer<String, Object> rewritten) {
+		boolean changed = false;
+		Map<String, Object> attributes = session.getAttributes();
+		Iterator<Map.Entry<String, OptionalLong>> entries = baselines.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<String, OptionalLong> entry = entries.next();
+			entries.remove();
+			String name = entry.getKey();
+			Object value = attributes.get(name);
+			if (value != null) {
+				OptionalLong baseline = entry.getValue();
+				OptionalLong hash = this.hash(value);
+				if (baseline.equals(hash)) {
+					this.suppressed.increment();
+				} else {
+					// Trigger write of modified attribute
+					attributes.put(name, value);
+					rewritten.accept(name, value);
+					this.detected.increment();
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+
+	private OptionalLong hash(Object value) {
+		try {
+			ByteBuffer buffer = this.marshaller.write(value);
+			// Combine 2 intrinsic 32-bit checksums into a 64-bit hash
+			CRC32C high = new CRC32C();
+			high.update(buffer.duplicate());
+			CRC32 low = new CRC32();
+			low.update(buffer);
+			return OptionalLong.of((high.getValue() << Integer.SIZE) | low.getValue());
+		} catch (IOException e) {
+			// Defer to the session manager to handle unmarshallable attributes
+			return OptionalLong.empty();
+		}
+	}
+	/**
+	 * Returns the number of attribute writes suppressed, since the marshalled form of the attribute did not change.
+	 * @return the number of suppressed attribute writes
+	 */
+	public long getSuppressedCount() {
+		return this.suppressed.sum();
+	}
+
+	/**
+	 * Returns the number of attribute writes triggered by a detected change in the marshalled form of a mutable attribute.
+	 * @return the number of detected attribute changes
+	 */
+	public long getDetectedCount() {
+		return this.detected.sum();
+	}
+}
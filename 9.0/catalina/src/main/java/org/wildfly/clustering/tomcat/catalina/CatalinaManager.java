@@ -5,6 +5,7 @@
 package org.wildfly.clustering.tomcat.catalina;
 
 import java.beans.PropertyChangeListener;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.servlet.ServletContext;
@@ -21,6 +22,7 @@ import org.apache.catalina.Session;
 import org.apache.catalina.SessionIdGenerator;
 import org.wildfly.clustering.function.Predicate;
 import org.wildfly.clustering.function.UnaryOperator;
+import org.wildfly.clustering.server.immutable.Immutability;
 import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.container.ContainerProvider;
 
@@ -42,6 +44,31 @@ public interface CatalinaManager extends Manager, Lifecycle, DistributedManager
 	 */
 	UnaryOperator<String> getIdentifierInternalizer();
 
+	/**
+	 * Returns the internal identifier, i.e. including any routing information, of the specified session.
+	 * @param session a session
+	 * @return the internal identifier of the specified session.
+	 */
+	default String getInternalIdentifier(org.wildfly.clustering.session.Session<CatalinaSessionContext> session) {
+		return this.getIdentifierInternalizer().apply(session.getId());
+	}
+
+	/**
+	 * Returns the detector of changes to mutable session attributes, if enabled.
+	 * @return an optional attribute change detector
+	 */
+	default Optional<AttributeChangeDetector> getAttributeChangeDetector() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the handler of conflicts detected while committing a session, if supported.
+	 * @return an optional commit conflict handler
+	 */
+	default Optional<CommitConflictHandler> getCommitConflictHandler() {
+		return Optional.empty();
+	}
+
 	/**
 	 * Returns the container provider.
 	 * @return the container provider.
@@ -54,6 +81,12 @@ public interface CatalinaManager extends Manager, Lifecycle, DistributedManager
 	 */
 	Predicate<Object> getMarshallability();
 
+	/**
+	 * Returns the immutability of session attributes, as applied by the session manager.
+	 * @return the immutability of session attributes
+	 */
+	Immutability getImmutability();
+
 	@Override
 	default int getActiveSessionsFull() {
 		return (int) this.getSessionManager().getStatistics().getActiveSessionCount();
@@ -21,6 +21,7 @@ public class CatalinaSessionContext {
 	private final List<SessionListener> listeners = new CopyOnWriteArrayList<>();
 	private volatile String authType;
 	private volatile Principal principal;
+	private volatile Map.Entry<Long, String> internalId;
 
 	/**
 	 * Creates the context of a Tomcat session.
@@ -60,6 +61,25 @@ public class CatalinaSessionContext {
 		this.principal = principal;
 	}
 
+	/**
+	 * Returns the internal identifier of this session, if previously computed for the specified topology.
+	 * @param topologyId a topology identifier
+	 * @return the internal identifier of this session, or null, if not computed for the specified topology.
+	 */
+	public String getInternalId(long topologyId) {
+		Map.Entry<Long, String> entry = this.internalId;
+		return ((entry != null) && (entry.getKey().longValue() == topologyId)) ? entry.getValue() : null;
+	}
+
+	/**
+	 * Specifies the internal identifier of this session, as computed for the specified topology.
+	 * @param topologyId a topology identifier
+	 * @param internalId the internal identifier of this session
+	 */
+	public void setInternalId(long topologyId, String internalId) {
+		this.internalId = Map.entry(topologyId, internalId);
+	}
+
 	/**
 	 * Returns the notes of this session.
 	 * @return the notes of this session.
@@ -8,7 +8,10 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.ServletContext;
@@ -41,8 +44,17 @@ public class DistributableHttpSession extends AbstractHttpSession {
 	private final Reference.Reader<Session<CatalinaSessionContext>> sessionReader;
 	private final Reference.Reader<SessionMetaData> sessionMetaDataReader;
 	private final Reference.Reader<Map<String, Object>> sessionAttributesReader;
+	private final Reference.Reader<CatalinaSessionContext> sessionContextReader;
 	private final Reference.Reader<Map<String, Object>> sessionNotesReader;
 	private final AtomicReference<Runnable> invalidateTask;
+	private final Optional<AttributeChangeDetector> detector;
+	// Hashes of the mutable attributes read via this adapter, subject to change detection
+	private final Map<String, OptionalLong> mutableAttributes = new ConcurrentHashMap<>();
+	// Attribute writes and removals made via this adapter, replayed should the commit of the session conflict with that of a concurrent request
+	private final Map<String, Optional<Object>> writes = new ConcurrentHashMap<>();
+	private volatile Optional<Duration> maxIdle = Optional.empty();
+	// Indicates whether all modifications made via this adapter can be replayed
+	private volatile boolean replayable = true;
 
 	/**
 	 * Creates a session adapter.
@@ -55,8 +67,80 @@ public class DistributableHttpSession extends AbstractHttpSession {
 		this.sessionReader = reference.getReader();
 		this.sessionMetaDataReader = this.sessionReader.map(Session.METADATA);
 		this.sessionAttributesReader = this.sessionReader.map(Session.ATTRIBUTES);
+		this.sessionContextReader = this.sessionReader.map(CONTEXT);
 		this.sessionNotesReader = this.sessionReader.map(NOTES);
 		this.invalidateTask = invalidateTask;
+		this.detector = manager.getAttributeChangeDetector();
+	}
+
+	/**
+	 * Persists any changes to the mutable attributes read via this adapter, if attribute change detection is enabled.
+	 */
+	void detectAttributeChanges() {
+		if (this.detector.isPresent() && !this.mutableAttributes.isEmpty()) {
+			AttributeChangeDetector detector = this.detector.get();
+			this.sessionReader.read(session -> {
+				if (session.isValid()) {
+					detector.detect(session, this.mutableAttributes, this::recordWrite);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Indicates whether the modifications of the session made via this adapter can be replayed against the current state of the session, should its commit conflict with that of a concurrent request.
+	 * @return true, if all modifications of the session can be replayed, false otherwise
+	 */
+	boolean isReplayable() {
+		return this.replayable;
+	}
+
+	/**
+	 * Records a modification of the session not made via this adapter, which therefore cannot be replayed.
+	 */
+	void setNotReplayable() {
+		this.replayable = false;
+	}
+
+	/**
+	 * Replays the attribute writes and removals, and the maximum inactive interval, made via this adapter against the specified session.
+	 * @param session a valid session
+	 */
+	void replay(Session<CatalinaSessionContext> session) {
+		Map<String, Object> attributes = session.getAttributes();
+		for (Map.Entry<String, Optional<Object>> entry : this.writes.entrySet()) {
+			Optional<Object> value = entry.getValue();
+			if (value.isPresent()) {
+				attributes.put(entry.getKey(), value.get());
+			} else {
+				attributes.remove(entry.getKey());
+			}
+		}
+		this.maxIdle.ifPresent(session.getMetaData()::setMaxIdle);
+	}
+
+	/**
+	 * Returns a reader of the session, shared with the Tomcat session adapter.
+	 * @return a reader of the session
+	 */
+	Reference.Reader<Session<CatalinaSessionContext>> getSessionReader() {
+		return this.sessionReader;
+	}
+
+	/**
+	 * Returns a reader of the local context of a valid session, shared with the Tomcat session adapter.
+	 * @return a reader of the local context of a valid session
+	 */
+	Reference.Reader<CatalinaSessionContext> getSessionContextReader() {
+		return this.sessionContextReader;
+	}
+
+	/**
+	 * Returns a reader of the notes of a valid session, shared with the Tomcat session adapter.
+	 * @return a reader of the notes of a valid session
+	 */
+	Reference.Reader<Map<String, Object>> getSessionNotesReader() {
+		return this.sessionNotesReader;
 	}
 
 	@Override
@@ -93,6 +177,7 @@ public class DistributableHttpSession extends AbstractHttpSession {
 	public void setMaxInactiveInterval(int interval) {
 		Duration maxIdle = interval > 0 ? Duration.ofSeconds(interval) : Duration.ZERO;
 		this.sessionMetaDataReader.read(SessionMetaData.MAX_IDLE.composeUnary(Function.identity(), Function.of(maxIdle)));
+		this.maxIdle = Optional.of(maxIdle);
 	}
 
 	@Override
@@ -125,7 +210,16 @@ public class DistributableHttpSession extends AbstractHttpSession {
 	@Override
 	public Object getAttribute(String name) {
 		Reference.Reader<Map<String, Object>> reader = this.getAttributeReader(name);
-		return reader.map(ImmutableSession.GET_ATTRIBUTE.composeUnary(Function.identity(), Function.of(name))).get();
+		Reference.Reader<Object> attributeReader = reader.map(ImmutableSession.GET_ATTRIBUTE.composeUnary(Function.identity(), Function.of(name)));
+		if (reader != this.sessionAttributesReader) {
+			return attributeReader.get();
+		}
+		Object value = this.detector.isPresent() ? this.detector.get().read(this.mutableAttributes, name, attributeReader::get) : attributeReader.get();
+		if ((value != null) && !this.mutableAttributes.containsKey(name) && !this.manager.getImmutability().test(value)) {
+			// Session manager will write mutable attributes without a baseline on commit, whose modifications cannot be replayed
+			this.replayable = false;
+		}
+		return value;
 	}
 
 	@Override
@@ -133,8 +227,11 @@ public class DistributableHttpSession extends AbstractHttpSession {
 		if (value != null) {
 			Reference.Reader<Map<String, Object>> reader = this.getAttributeReader(name);
 			Object old = reader.map(attributes -> attributes.put(name, value)).get();
-			if ((reader == this.sessionAttributesReader) && (old != value)) {
-				this.notifySessionAttributeListeners(name, old, value);
+			if (reader == this.sessionAttributesReader) {
+				this.written(name, value);
+				if (old != value) {
+					this.notifySessionAttributeListeners(name, old, value);
+				}
 			}
 		} else {
 			this.removeAttribute(name);
@@ -145,11 +242,25 @@ public class DistributableHttpSession extends AbstractHttpSession {
 	public void removeAttribute(String name) {
 		Reference.Reader<Map<String, Object>> reader = this.getAttributeReader(name);
 		Object value = reader.map(Session.REMOVE_ATTRIBUTE.composeUnary(Function.identity(), Function.of(name))).get();
-		if ((reader == this.sessionAttributesReader) && (value != null)) {
-			this.notifySessionAttributeListeners(name, value, null);
+		if (reader == this.sessionAttributesReader) {
+			this.written(name, null);
+			if (value != null) {
+				this.notifySessionAttributeListeners(name, value, null);
+			}
 		}
 	}
 
+	private void written(String name, Object value) {
+		this.recordWrite(name, value);
+		if (this.detector.isPresent()) {
+			this.detector.get().written(this.mutableAttributes, name);
+		}
+	}
+
+	private void recordWrite(String name, Object value) {
+		this.writes.put(name, Optional.ofNullable(value));
+	}
+
 	private void notifySessionAttributeListeners(String name, Object oldValue, Object newValue) {
 		if (oldValue instanceof HttpSessionBindingListener) {
 			HttpSessionBindingListener listener = (HttpSessionBindingListener) oldValue;
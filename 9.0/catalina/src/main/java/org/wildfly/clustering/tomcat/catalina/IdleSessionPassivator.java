@@ -0,0 +1,150 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Passivates sessions held in local memory that were not used by a local request within a given duration, in batches of bounded size.
+ * The idle time of a session is measured from the end of its last local request, or, if not used by a local request, from when this passivator first observed the session in local memory.
+ * Sessions in use by a local request are never passivated.
+ * @author Paul Ferraro
+ */
+public class IdleSessionPassivator implements Runnable {
+	private static final System.Logger LOGGER = System.getLogger(IdleSessionPassivator.class.getCanonicalName());
+	// Request count of a session being passivated
+	private static final int PASSIVATING = 0;
+
+	private final Map<String, Instant> accessTimes = new ConcurrentHashMap<>();
+	private final Map<String, Integer> requests = new ConcurrentHashMap<>();
+	private final Duration idleThreshold;
+	private final int batchSize;
+	private final SessionPassivation passivation;
+	private final AtomicLong passivatedCount = new AtomicLong();
+	private final AtomicLong passivationTime = new AtomicLong();
+
+	/**
+	 * Creates an idle session passivator.
+	 * @param idleThreshold the duration since last local use after which a session is considered idle
+	 * @param batchSize the maximum number of sessions to passivate per invocation of {@link #run()}
+	 * @param passivation the passivation of sessions held in local memory
+	 */
+	public IdleSessionPassivator(Duration idleThreshold, int batchSize, SessionPassivation passivation) {
+		this.idleThreshold = idleThreshold;
+		this.batchSize = batchSize;
+		this.passivation = passivation;
+	}
+
+	/**
+	 * Records the start of a local request for the session with the specified identifier.
+	 * If the session is currently being passivated, this blocks until its passivation completes.
+	 * @param id a session identifier
+	 */
+	public void begin(String id) {
+		boolean interrupted = false;
+		// If the session is being passivated, wait for its passivation to complete
+		while (this.requests.merge(id, 1, (count, increment) -> (count == PASSIVATING) ? count : count + increment) == PASSIVATING) {
+			synchronized (this) {
+				while (Objects.equals(this.requests.get(id), PASSIVATING)) {
+					try {
+						this.wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Records the end of a local request for the session with the specified identifier.
+	 * @param id a session identifier
+	 */
+	public void end(String id) {
+		this.requests.computeIfPresent(id, (key, count) -> (count > 1) ? count - 1 : null);
+		this.accessTimes.put(id, Instant.now());
+	}
+
+	/**
+	 * Returns the total number of sessions passivated by this object.
+	 * @return the total number of sessions passivated by this object.
+	 */
+	public long getPassivatedCount() {
+		return this.passivatedCount.get();
+	}
+
+	/**
+	 * Returns the total duration, in milliseconds, spent passivating idle sessions.
+	 * @return the total duration, in milliseconds, spent passivating idle sessions.
+	 */
+	public long getPassivationTime() {
+		return this.passivationTime.get();
+	}
+
+	@Override
+	public void run() {
+		long start = System.nanoTime();
+		Instant now = Instant.now();
+		Instant idleTime = now.minus(this.idleThreshold);
+		Set<String> localSessions = new HashSet<>();
+		int count = 0;
+		try (Stream<String> identifiers = this.passivation.getLocalSessionIdentifiers()) {
+			Iterator<String> ids = identifiers.iterator();
+			while (ids.hasNext()) {
+				String id = ids.next();
+				localSessions.add(id);
+				// Skip sessions in use by a local request
+				if (this.requests.containsKey(id)) continue;
+				// Idle time of a session not yet observed starts now
+				Instant accessTime = this.accessTimes.putIfAbsent(id, now);
+				// Skip sessions accessed concurrently
+				if ((count < this.batchSize) && (accessTime != null) && !accessTime.isAfter(idleTime) && this.accessTimes.remove(id, accessTime) && this.passivate(id)) {
+					count += 1;
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+			return;
+		}
+		// Forget sessions no longer held in local memory, e.g. those that were passivated, expired, or migrated to another member
+		this.accessTimes.keySet().removeIf(id -> !localSessions.contains(id) && !this.requests.containsKey(id));
+		long duration = Duration.ofNanos(System.nanoTime() - start).toMillis();
+		this.passivatedCount.addAndGet(count);
+		this.passivationTime.addAndGet(duration);
+		if (count > 0) {
+			LOGGER.log(System.Logger.Level.DEBUG, "Passivated {0} idle sessions in {1} ms", count, duration);
+		}
+	}
+
+	private boolean passivate(String id) {
+		// Mark the session as passivating, unless in use by a local request, so that a request cannot begin between our check and the passivation itself
+		if (this.requests.putIfAbsent(id, PASSIVATING) != null) return false;
+		// Passivate outside of the request count mapping, which must not be held during store I/O
+		try {
+			return this.passivation.test(id);
+		} catch (RuntimeException e) {
+			LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+			return false;
+		} finally {
+			this.requests.remove(id, PASSIVATING);
+			// Resume any request waiting on this passivation
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.util.Map;
+
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+
+/**
+ * A snapshot of an immutable session, whose attributes are eagerly copied, such that it remains readable after the session is removed.
+ * @author Paul Ferraro
+ */
+class ImmutableSessionSnapshot implements ImmutableSession {
+
+	private final String id;
+	private final boolean valid;
+	private final ImmutableSessionMetaData metaData;
+	private final Map<String, Object> attributes;
+
+	/**
+	 * Creates a snapshot of the specified session.
+	 * @param session an immutable session
+	 */
+	ImmutableSessionSnapshot(ImmutableSession session) {
+		this.id = session.getId();
+		this.valid = session.isValid();
+		this.metaData = session.getMetaData();
+		// Loads any attributes not yet read, e.g. for sessions with per-attribute granularity
+		this.attributes = Map.copyOf(session.getAttributes());
+	}
+
+	@Override
+	public String getId() {
+		return this.id;
+	}
+
+	@Override
+	public boolean isValid() {
+		return this.valid;
+	}
+
+	@Override
+	public ImmutableSessionMetaData getMetaData() {
+		return this.metaData;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return this.attributes;
+	}
+
+	@Override
+	public String toString() {
+		return this.id;
+	}
+}
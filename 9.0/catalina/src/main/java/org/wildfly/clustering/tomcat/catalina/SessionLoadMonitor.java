@@ -0,0 +1,137 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.wildfly.clustering.function.Supplier;
+
+/**
+ * Records the duration of session loads in a histogram, which includes any time spent acquiring the lock of the session and fetching the session from the cache.
+ * If a load timeout is defined, the calling thread waits for a session load no longer than this timeout.
+ * A session whose load completes after its caller stopped waiting is closed on completion.
+ * @author Paul Ferraro
+ */
+public class SessionLoadMonitor {
+	private static final System.Logger LOGGER = System.getLogger(SessionLoadMonitor.class.getCanonicalName());
+	// Upper bounds, in milliseconds, of each bucket of the histogram, except the last, which is unbounded
+	private static final long[] BUCKETS = new long[] { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 };
+
+	private final Optional<Duration> timeout;
+	private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+	private final LongAdder timeouts = new LongAdder();
+
+	/**
+	 * Creates a session load monitor.
+	 * @param timeout the optional timeout of a session load
+	 */
+	public SessionLoadMonitor(Optional<Duration> timeout) {
+		this.timeout = timeout;
+		for (int i = 0; i < this.counts.length; ++i) {
+			this.counts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Loads the session with the specified identifier, recording the duration of the load.
+	 * If a load timeout is defined, the session is loaded via the specified asynchronous loader, otherwise via the specified blocking loader.
+	 * @param <T> the session type
+	 * @param id a session identifier
+	 * @param loader a blocking session loader
+	 * @param asyncLoader an asynchronous session loader
+	 * @return the loaded session
+	 * @throws IllegalStateException if the session could not be loaded within the load timeout
+	 */
+	public <T extends AutoCloseable> T load(String id, Supplier<T> loader, Supplier<CompletionStage<T>> asyncLoader) {
+		long start = System.nanoTime();
+		try {
+			T session = this.timeout.isPresent() ? this.load(id, asyncLoader, this.timeout.get()) : loader.get();
+			this.record(System.nanoTime() - start);
+			return session;
+		} catch (RuntimeException | Error e) {
+			this.record(System.nanoTime() - start);
+			throw e;
+		}
+	}
+
+	private <T extends AutoCloseable> T load(String id, Supplier<CompletionStage<T>> loader, Duration timeout) {
+		CompletableFuture<T> future = loader.get().toCompletableFuture();
+		try {
+			// Bound our wait on a copy, leaving the load itself to complete normally
+			return future.copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TimeoutException) {
+				this.timeouts.increment();
+				LOGGER.log(System.Logger.Level.DEBUG, "Session {0} could not be loaded within {1}", id, timeout);
+				// Release the session, and thus its lock, once its load completes
+				future.thenAccept(session -> close(id, session));
+				throw new IllegalStateException(String.format("Session %s could not be loaded within %s", id, timeout), cause);
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private static void close(String id, AutoCloseable session) {
+		if (session != null) {
+			try {
+				session.close();
+			} catch (Exception e) {
+				LOGGER.log(System.Logger.Level.DEBUG, String.format("Failed to close session %s following load timeout", id), e);
+			}
+		}
+	}
+
+	private void record(long duration) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(duration);
+		int bucket = 0;
+		while ((bucket < BUCKETS.length) && (millis > BUCKETS[bucket])) {
+			bucket += 1;
+		}
+		this.counts[bucket].increment();
+		this.max.accumulate(millis);
+	}
+
+	/**
+	 * Returns a histogram of session load durations, formatted as a comma-separated list of bucket upper bounds, in milliseconds, and counts.
+	 * @return a histogram of session load durations
+	 */
+	public String getHistogram() {
+		return IntStream.range(0, this.counts.length).mapToObj(i -> ((i < BUCKETS.length) ? "<=" + BUCKETS[i] : ">" + BUCKETS[BUCKETS.length - 1]) + "ms:" + this.counts[i].sum()).collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Returns the maximum duration, in milliseconds, of a session load.
+	 * @return the maximum duration of a session load
+	 */
+	public long getMaxTime() {
+		return this.max.get();
+	}
+
+	/**
+	 * Returns the number of session loads that were not completed within the load timeout.
+	 * @return the number of session load timeouts
+	 */
+	public long getTimeoutCount() {
+		return this.timeouts.sum();
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.tomcat.catalina;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.clustering.context.Contextualizer;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Loads a set of sessions into local memory using a fixed number of threads, optionally limiting the rate at which sessions are loaded.
+ * Sessions are loaded via a read-only view, thus preloading neither locks a session nor writes to it.
+ * @author Paul Ferraro
+ */
+public class SessionPreloader implements AutoCloseable {
+	private static final System.Logger LOGGER = System.getLogger(SessionPreloader.class.getCanonicalName());
+
+	private final SessionManager<CatalinaSessionContext> manager;
+	private final Contextualizer contextualizer;
+	private final int threads;
+	private final long interval;
+	private final AtomicLong nextPermit = new AtomicLong(System.nanoTime());
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a session preloader.
+	 * @param manager the session manager from which sessions are loaded
+	 * @param contextualizer the contextualizer applied to loader threads, e.g. to apply the class loader of the web application
+	 * @param threads the number of threads with which to load sessions
+	 * @param rate the maximum number of sessions to load per second, or 0 if unlimited
+	 */
+	public SessionPreloader(SessionManager<CatalinaSessionContext> manager, Contextualizer contextualizer, int threads, int rate) {
+		this.manager = manager;
+		this.contextualizer = contextualizer;
+		this.threads = threads;
+		this.interval = (rate > 0) ? TimeUnit.SECONDS.toNanos(1) / rate : 0L;
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "session-preloader-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Asynchronously loads the sessions with the specified identifiers.
+	 * The threads of this preloader terminate once all sessions are loaded, thus this method may only be invoked once.
+	 * @param identifiers a list of session identifiers
+	 */
+	public void preload(List<String> identifiers) {
+		if (identifiers.isEmpty()) return;
+		long start = System.nanoTime();
+		AtomicInteger index = new AtomicInteger();
+		AtomicInteger loaded = new AtomicInteger();
+		AtomicInteger remaining = new AtomicInteger(this.threads);
+		LOGGER.log(System.Logger.Level.INFO, "Preloading {0} sessions", identifiers.size());
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int i = index.getAndIncrement();
+					while (i < identifiers.size()) {
+						SessionPreloader.this.acquire();
+						if (SessionPreloader.this.load(identifiers.get(i))) {
+							loaded.incrementAndGet();
+						}
+						i = index.getAndIncrement();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					if (remaining.decrementAndGet() == 0) {
+						LOGGER.log(System.Logger.Level.INFO, "Preloaded {0} sessions in {1} ms", loaded.get(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+					}
+				}
+			}
+		};
+		for (int i = 0; i < this.threads; ++i) {
+			this.executor.execute(this.contextualizer.contextualize(task));
+		}
+		// Release threads once all sessions are loaded
+		this.executor.shutdown();
+	}
+
+	private void acquire() throws InterruptedException {
+		if (this.interval > 0) {
+			long now = System.nanoTime();
+			long interval = this.interval;
+			long permit = Math.max(this.nextPermit.getAndAccumulate(now, (next, time) -> Math.max(next, time) + interval), now);
+			if (permit > now) {
+				TimeUnit.NANOSECONDS.sleep(permit - now);
+			}
+		}
+	}
+
+	private boolean load(String id) {
+		if (Thread.currentThread().isInterrupted()) return false;
+		try {
+			// A read-only view does not acquire the locks, nor commit the write, implied by a request for the session
+			ImmutableSession session = this.manager.findImmutableSession(id);
+			if ((session == null) || !session.isValid()) return false;
+			// For fine granularity, this only loads attribute names, attribute values are deserialized when first read by a request
+			session.getAttributes().keySet().size();
+			return true;
+		} catch (RuntimeException e) {
+			LOGGER.log(System.Logger.Level.DEBUG, e.getLocalizedMessage(), e);
+			return false;
+		}
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+		try {
+			this.executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -17,6 +17,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.management.ObjectName;
 import javax.servlet.ServletContext;
@@ -38,10 +40,12 @@ import org.infinispan.configuration.global.ShutdownHookBehavior;
 import org.infinispan.configuration.global.TransportConfiguration;
 import org.infinispan.configuration.parsing.ConfigurationBuilderHolder;
 import org.infinispan.configuration.parsing.ParserRegistry;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.expiration.ExpirationManager;
 import org.infinispan.factories.KnownComponentNames;
-import org.infinispan.factories.threads.CoreExecutorFactory;
 import org.infinispan.globalstate.ConfigurationStorage;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -50,8 +54,11 @@ import org.infinispan.protostream.SerializationContext;
 import org.infinispan.protostream.SerializationContextInitializer;
 import org.infinispan.remoting.transport.jgroups.JGroupsChannelConfigurator;
 import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.WriteSkewException;
 import org.infinispan.transaction.tm.EmbeddedTransactionManager;
 import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.IsolationLevel;
 import org.infinispan.util.concurrent.NonBlockingManager;
 import org.jgroups.JChannel;
 import org.jgroups.Message;
@@ -84,6 +91,9 @@ import org.wildfly.clustering.session.infinispan.embedded.metadata.SessionMetaDa
 import org.wildfly.clustering.tomcat.SessionMarshallerFactory;
 import org.wildfly.clustering.tomcat.catalina.AbstractManager;
 import org.wildfly.clustering.tomcat.catalina.CatalinaSessionContext;
+import org.wildfly.clustering.tomcat.catalina.CommitConflictHandler;
+import org.wildfly.clustering.tomcat.catalina.SessionPassivation;
+import org.wildfly.clustering.tomcat.catalina.VirtualThreadFactory;
 
 /**
  * Distributed Manager that stores sessions within an embedded Infinispan cache.
@@ -92,9 +102,20 @@ import org.wildfly.clustering.tomcat.catalina.CatalinaSessionContext;
 public class InfinispanManager extends AbstractManager {
 	static final System.Logger LOGGER = System.getLogger(InfinispanManager.class.getCanonicalName());
 	private static final AtomicInteger COUNTER = new AtomicInteger(0);
+	// Write skew may be the cause of, or suppressed by, the exception thrown on commit
+	static final Predicate<Throwable> WRITE_SKEW = exception -> CommitConflictHandler.anyCause(exception, WriteSkewException.class::isInstance);
 
 	private volatile String resourceName = "infinispan.xml";
 	private volatile String cacheName;
+	private volatile String passivationPath;
+	private volatile boolean passivationSyncWrites = false;
+	private volatile LockingMode locking;
+	private volatile Cache<Key<String>, ?> cache;
+	private volatile boolean virtualThreads = false;
+	private final ThreadPool blockingThreadPool = new ThreadPool(KnownComponentNames.BLOCKING_EXECUTOR);
+	private final ThreadPool listenerThreadPool = new ThreadPool(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR);
+	private final ThreadPool nonBlockingThreadPool = new ThreadPool(KnownComponentNames.NON_BLOCKING_EXECUTOR);
+	private final ThreadPool expirationThreadPool = new ThreadPool(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR);
 
 	/**
 	 * Creates a distributed manager.
@@ -118,6 +139,294 @@ public class InfinispanManager extends AbstractManager {
 		this.cacheName = cacheName;
 	}
 
+	/**
+	 * Enables passivation of sessions to a bundled file store, located at the specified path.
+	 * The store is an append-only log with an in-memory index that is compacted in the background.
+	 * A relative path is resolved against the work directory of the web application.
+	 * @param path the location of the passivation store
+	 */
+	public void setPassivationPath(String path) {
+		this.passivationPath = path;
+	}
+
+	/**
+	 * Specifies whether writes to the bundled passivation store are synchronously flushed to disk.
+	 * By default, writes are flushed in batches.
+	 * @param syncWrites true, if writes should be flushed to disk synchronously, false otherwise
+	 */
+	public void setPassivationSyncWrites(boolean syncWrites) {
+		this.passivationSyncWrites = syncWrites;
+	}
+
+	/**
+	 * Specifies the locking mode of a transactional session cache, either PESSIMISTIC or OPTIMISTIC, overriding that of the cache configuration.
+	 * Optimistic locking acquires no cluster-wide locks until commit, at which point concurrent modifications of the same session are detected via write skew checks.
+	 * @param locking a locking mode
+	 */
+	public void setLocking(String locking) {
+		this.locking = LockingMode.valueOf(locking);
+	}
+
+	/**
+	 * Specifies whether the blocking and listener thread pools of the cache container, and the threads of the JGroups transport, should use virtual threads.
+	 * Requires a Java 21+ runtime, otherwise platform threads are used.
+	 * @param virtualThreads true, if virtual threads should be used, false otherwise.
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Specifies the number of core threads of the blocking thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setBlockingCoreThreads(int threads) {
+		this.blockingThreadPool.setCoreThreads(threads);
+	}
+
+	/**
+	 * Specifies the maximum number of threads of the blocking thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setBlockingMaxThreads(int threads) {
+		this.blockingThreadPool.setMaxThreads(threads);
+	}
+
+	/**
+	 * Specifies the queue length of the blocking thread pool of the cache container.
+	 * @param length a queue length
+	 */
+	public void setBlockingQueueLength(int length) {
+		this.blockingThreadPool.setQueueLength(length);
+	}
+
+	/**
+	 * Specifies the duration for which idle non-core threads of the blocking thread pool of the cache container are retained.
+	 * @param keepAlive an ISO-8601 formatted duration
+	 */
+	public void setBlockingKeepAlive(String keepAlive) {
+		this.blockingThreadPool.setKeepAlive(Duration.parse(keepAlive));
+	}
+
+	/**
+	 * Specifies the number of core threads of the listener thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setListenerCoreThreads(int threads) {
+		this.listenerThreadPool.setCoreThreads(threads);
+	}
+
+	/**
+	 * Specifies the maximum number of threads of the listener thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setListenerMaxThreads(int threads) {
+		this.listenerThreadPool.setMaxThreads(threads);
+	}
+
+	/**
+	 * Specifies the queue length of the listener thread pool of the cache container.
+	 * @param length a queue length
+	 */
+	public void setListenerQueueLength(int length) {
+		this.listenerThreadPool.setQueueLength(length);
+	}
+
+	/**
+	 * Specifies the duration for which idle non-core threads of the listener thread pool of the cache container are retained.
+	 * @param keepAlive an ISO-8601 formatted duration
+	 */
+	public void setListenerKeepAlive(String keepAlive) {
+		this.listenerThreadPool.setKeepAlive(Duration.parse(keepAlive));
+	}
+
+	/**
+	 * Specifies the number of core threads of the non-blocking thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setNonBlockingCoreThreads(int threads) {
+		this.nonBlockingThreadPool.setCoreThreads(threads);
+	}
+
+	/**
+	 * Specifies the maximum number of threads of the non-blocking thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setNonBlockingMaxThreads(int threads) {
+		this.nonBlockingThreadPool.setMaxThreads(threads);
+	}
+
+	/**
+	 * Specifies the queue length of the non-blocking thread pool of the cache container.
+	 * @param length a queue length
+	 */
+	public void setNonBlockingQueueLength(int length) {
+		this.nonBlockingThreadPool.setQueueLength(length);
+	}
+
+	/**
+	 * Specifies the duration for which idle non-core threads of the non-blocking thread pool of the cache container are retained.
+	 * @param keepAlive an ISO-8601 formatted duration
+	 */
+	public void setNonBlockingKeepAlive(String keepAlive) {
+		this.nonBlockingThreadPool.setKeepAlive(Duration.parse(keepAlive));
+	}
+
+	/**
+	 * Specifies the number of threads of the expiration thread pool of the cache container.
+	 * @param threads a number of threads
+	 */
+	public void setExpirationThreads(int threads) {
+		this.expirationThreadPool.setCoreThreads(threads);
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of the blocking thread pool of the cache container.
+	 * @return the number of queued tasks, or -1 if the thread pool uses virtual threads
+	 */
+	public int getBlockingQueueSize() {
+		return this.blockingThreadPool.getQueueSize();
+	}
+
+	/**
+	 * Returns the approximate number of threads of the blocking thread pool of the cache container that are actively executing tasks.
+	 * @return the number of active threads, or -1 if the thread pool uses virtual threads
+	 */
+	public int getBlockingActiveThreads() {
+		return this.blockingThreadPool.getActiveThreads();
+	}
+
+	/**
+	 * Returns the number of tasks rejected by the blocking thread pool of the cache container.
+	 * @return the number of rejected tasks, or -1 if the thread pool uses virtual threads
+	 */
+	public long getBlockingRejectedTaskCount() {
+		return this.blockingThreadPool.getRejectedTaskCount();
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of the listener thread pool of the cache container.
+	 * @return the number of queued tasks, or -1 if the thread pool uses virtual threads
+	 */
+	public int getListenerQueueSize() {
+		return this.listenerThreadPool.getQueueSize();
+	}
+
+	/**
+	 * Returns the approximate number of threads of the listener thread pool of the cache container that are actively executing tasks.
+	 * @return the number of active threads, or -1 if the thread pool uses virtual threads
+	 */
+	public int getListenerActiveThreads() {
+		return this.listenerThreadPool.getActiveThreads();
+	}
+
+	/**
+	 * Returns the number of tasks rejected by the listener thread pool of the cache container.
+	 * @return the number of rejected tasks, or -1 if the thread pool uses virtual threads
+	 */
+	public long getListenerRejectedTaskCount() {
+		return this.listenerThreadPool.getRejectedTaskCount();
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of the non-blocking thread pool of the cache container.
+	 * @return the number of queued tasks
+	 */
+	public int getNonBlockingQueueSize() {
+		return this.nonBlockingThreadPool.getQueueSize();
+	}
+
+	/**
+	 * Returns the approximate number of threads of the non-blocking thread pool of the cache container that are actively executing tasks.
+	 * @return the number of active threads
+	 */
+	public int getNonBlockingActiveThreads() {
+		return this.nonBlockingThreadPool.getActiveThreads();
+	}
+
+	/**
+	 * Returns the number of tasks rejected by the non-blocking thread pool of the cache container.
+	 * @return the number of rejected tasks
+	 */
+	public long getNonBlockingRejectedTaskCount() {
+		return this.nonBlockingThreadPool.getRejectedTaskCount();
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue of the expiration thread pool of the cache container.
+	 * @return the number of queued tasks
+	 */
+	public int getExpirationQueueSize() {
+		return this.expirationThreadPool.getQueueSize();
+	}
+
+	/**
+	 * Returns the approximate number of threads of the expiration thread pool of the cache container that are actively executing tasks.
+	 * @return the number of active threads
+	 */
+	public int getExpirationActiveThreads() {
+		return this.expirationThreadPool.getActiveThreads();
+	}
+
+	/**
+	 * Returns the number of tasks rejected by the expiration thread pool of the cache container.
+	 * @return the number of rejected tasks
+	 */
+	public long getExpirationRejectedTaskCount() {
+		return this.expirationThreadPool.getRejectedTaskCount();
+	}
+
+	@Override
+	protected List<String> getPreloadIdentifiers() {
+		Cache<Key<String>, ?> cache = this.cache;
+		DistributionManager distribution = (cache != null) ? cache.getAdvancedCache().getDistributionManager() : null;
+		if (distribution == null) {
+			return List.of();
+		}
+		// Session routes reference the primary owner of a session
+		LocalizedCacheTopology topology = distribution.getCacheTopology();
+		try (Stream<Key<String>> keys = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).keySet().stream()) {
+			return keys.filter(SessionMetaDataKey.class::isInstance).filter(key -> topology.getDistribution(key).isPrimary()).map(Key::getId).collect(Collectors.toList());
+		}
+	}
+
+	@Override
+	protected Optional<SessionPassivation> getPassivation() {
+		Cache<Key<String>, ?> cache = this.cache;
+		// Eviction is only safe if the cache passivates evicted entries to a store
+		if ((cache == null) || !cache.getCacheConfiguration().persistence().passivation()) {
+			return Optional.empty();
+		}
+		Cache<Key<String>, ?> localCache = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD);
+		return Optional.of(new SessionPassivation() {
+			@Override
+			public Stream<String> getLocalSessionIdentifiers() {
+				return localCache.keySet().stream().filter(SessionMetaDataKey.class::isInstance).map(Key::getId);
+			}
+
+			@Override
+			public boolean test(String id) {
+				Key<String> key = new SessionMetaDataKey(id);
+				if (!localCache.containsKey(key)) {
+					return false;
+				}
+				// Eviction of the remaining entries of this session will cascade from the meta data entry
+				cache.evict(key);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	protected Optional<Predicate<Throwable>> getCommitConflict() {
+		Cache<Key<String>, ?> cache = this.cache;
+		// Only optimistic transactions fail on commit due to a concurrent modification
+		if ((cache == null) || !cache.getCacheConfiguration().transaction().transactionMode().isTransactional() || (cache.getCacheConfiguration().transaction().lockingMode() != LockingMode.OPTIMISTIC)) {
+			return Optional.empty();
+		}
+		return Optional.of(WRITE_SKEW);
+	}
+
 	@Override
 	protected Map.Entry<SessionManagerFactory<ServletContext, CatalinaSessionContext>, UnaryOperator<String>> createSessionManagerFactory(SessionManagerFactoryConfiguration<CatalinaSessionContext> config, String localRoute, Consumer<Runnable> stopTasks) throws LifecycleException {
 		COUNTER.incrementAndGet();
@@ -143,12 +452,20 @@ public class InfinispanManager extends AbstractManager {
 			}
 			LOGGER.log(System.Logger.Level.INFO, "Configuring Infinispan from {0}", url);
 
+			boolean virtualThreads = this.virtualThreads && VirtualThreadFactory.isSupported();
+			if (this.virtualThreads && !virtualThreads) {
+				LOGGER.log(System.Logger.Level.WARNING, "Virtual threads are not supported by this runtime, using platform threads instead");
+			}
+			if (virtualThreads) {
+				LOGGER.log(System.Logger.Level.INFO, "Blocking and listener thread pools use virtual threads, their sizing is ignored and their metrics are unavailable");
+			}
+
 			ConfigurationBuilderHolder holder = new ParserRegistry(loader, false, System.getProperties()).parse(url);
 			GlobalConfigurationBuilder global = holder.getGlobalConfigurationBuilder();
 			String containerName = global.cacheContainer().name();
 			TransportConfiguration transport = global.transport().nodeName(localRoute).create();
 
-			JGroupsChannelConfigurator configurator = (transport.transport() != null) ? new JChannelConfigurator(transport, loader) : null;
+			JGroupsChannelConfigurator configurator = (transport.transport() != null) ? new JChannelConfigurator(transport, loader, virtualThreads) : null;
 			JChannel channel = (configurator != null) ? configurator.createChannel(null) : null;
 			if (channel != null) {
 				channel.setName(transport.nodeName());
@@ -207,10 +524,10 @@ public class InfinispanManager extends AbstractManager {
 			}
 
 			Map<String, ExecutorServiceFactory<? extends ExecutorService>> executors = Map.of(
-					KnownComponentNames.BLOCKING_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(createThreadPoolFactoryWithDefaults(KnownComponentNames.BLOCKING_EXECUTOR)),
-					KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(ScheduledThreadPoolExecutorFactory.create()),
-					KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(createThreadPoolFactoryWithDefaults(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR)),
-					KnownComponentNames.NON_BLOCKING_EXECUTOR, new SimpleNonBlockingThreadPoolExecutorFactory<>(createThreadPoolFactoryWithDefaults(KnownComponentNames.NON_BLOCKING_EXECUTOR)));
+					KnownComponentNames.BLOCKING_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(virtualThreads ? new VirtualThreadPoolExecutorFactory(loader) : this.blockingThreadPool.createFactory(false), this.blockingThreadPool),
+					KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(ScheduledThreadPoolExecutorFactory.create(), this.expirationThreadPool),
+					KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR, new SimpleThreadPoolExecutorFactory<>(virtualThreads ? new VirtualThreadPoolExecutorFactory(loader) : this.listenerThreadPool.createFactory(false), this.listenerThreadPool),
+					KnownComponentNames.NON_BLOCKING_EXECUTOR, new SimpleNonBlockingThreadPoolExecutorFactory<>(this.nonBlockingThreadPool.createFactory(true), this.nonBlockingThreadPool));
 
 			executors.values().forEach(stopTasks);
 
@@ -244,12 +561,45 @@ public class InfinispanManager extends AbstractManager {
 				throw new IllegalArgumentException(this.cacheName);
 			}
 			ConfigurationBuilder builder = new ConfigurationBuilder().read(template).template(false);
+			// The local context of a session is a transient field of its cached meta-data entry, and only survives across requests if the cache retains entries as objects
 			builder.encoding().mediaType(MediaType.APPLICATION_OBJECT_TYPE);
 
 			if (template.invocationBatching().enabled()) {
 				builder.transaction().transactionManagerLookup(EmbeddedTransactionManager::getInstance);
 			}
 
+			LockingMode locking = this.locking;
+			if (locking != null) {
+				if (template.transaction().transactionMode().isTransactional()) {
+					builder.transaction().lockingMode(locking);
+					if (locking == LockingMode.OPTIMISTIC) {
+						// Write skew checks require repeatable read isolation
+						builder.locking().isolationLevel(IsolationLevel.REPEATABLE_READ);
+					}
+				} else {
+					LOGGER.log(System.Logger.Level.WARNING, "Ignoring {0} locking, since the session cache is not transactional", locking);
+				}
+			}
+
+			String passivationPath = this.passivationPath;
+			if (passivationPath != null) {
+				File directory = new File(passivationPath);
+				if (!directory.isAbsolute()) {
+					directory = new File((File) this.getContext().getServletContext().getAttribute(ServletContext.TEMPDIR), passivationPath);
+				}
+				LOGGER.log(System.Logger.Level.INFO, "Passivating sessions to {0}", directory);
+				// Replace any stores defined by the template
+				builder.persistence().clearStores().passivation(true)
+						.addSoftIndexFileStore()
+							.dataLocation(new File(directory, "data").getPath())
+							.indexLocation(new File(directory, "index").getPath())
+							.syncWrites(this.passivationSyncWrites)
+							// Stored sessions are stale following a restart
+							.purgeOnStartup(true)
+							.shared(false)
+							;
+			}
+
 			// Disable expiration
 			builder.expiration().lifespan(-1).maxIdle(-1).disableReaper().wakeUpInterval(-1);
 
@@ -294,6 +644,14 @@ public class InfinispanManager extends AbstractManager {
 			cache.start();
 			stopTasks.accept(cache::stop);
 
+			this.cache = cache;
+			stopTasks.accept(() -> this.cache = null);
+
+			// Session routes are computed from the primary owner of a session, thus must be recomputed when the cache topology changes
+			Object topologyListener = new TopologyChangeListener(this::topologyChanged);
+			cache.addListener(topologyListener);
+			stopTasks.accept(() -> cache.removeListener(topologyListener));
+
 			EmbeddedCacheConfiguration cacheConfiguration = new EmbeddedCacheConfiguration() {
 				@SuppressWarnings("unchecked")
 				@Override
@@ -332,23 +690,50 @@ public class InfinispanManager extends AbstractManager {
 	private interface ExecutorServiceFactory<E extends ExecutorService> extends ThreadPoolExecutorFactory<E>, Runnable {
 	}
 
-	private static ThreadPoolExecutorFactory<? extends ExecutorService> createThreadPoolFactoryWithDefaults(String componentName) {
-		int defaultQueueSize = KnownComponentNames.getDefaultQueueSize(componentName);
-		int defaultMaxThreads = KnownComponentNames.getDefaultThreads(componentName);
-		return CoreExecutorFactory.executorFactory(defaultMaxThreads, defaultQueueSize, KnownComponentNames.NON_BLOCKING_EXECUTOR.equals(componentName));
+	private static class VirtualThreadPoolExecutorFactory implements ThreadPoolExecutorFactory<ExecutorService> {
+		private final ClassLoader loader;
+
+		VirtualThreadPoolExecutorFactory(ClassLoader loader) {
+			this.loader = loader;
+		}
+
+		@Override
+		public ExecutorService createExecutor(ThreadFactory factory) {
+			VirtualThreadFactory virtualFactory = new VirtualThreadFactory(this.loader);
+			if (factory == null) {
+				// Each task runs on a new virtual thread
+				return virtualFactory.createExecutor();
+			}
+			// Each task runs on a new virtual thread, named by the thread factory of the cache container
+			// Like the platform threads of a blocking thread pool, virtual threads are not marked as non-blocking
+			return VirtualThreadFactory.createExecutor(task -> {
+				Thread thread = virtualFactory.newThread(task);
+				// An unstarted platform thread does not consume any native resources
+				thread.setName(factory.newThread(task).getName());
+				return thread;
+			});
+		}
+
+		@Override
+		public void validate() {
+			// Do nothing
+		}
 	}
 
 	private static class SimpleThreadPoolExecutorFactory<E extends ExecutorService> implements ExecutorServiceFactory<E> {
 		private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
 		private final ThreadPoolExecutorFactory<E> factory;
+		private final ThreadPool pool;
 
-		SimpleThreadPoolExecutorFactory(ThreadPoolExecutorFactory<E> factory) {
+		SimpleThreadPoolExecutorFactory(ThreadPoolExecutorFactory<E> factory, ThreadPool pool) {
 			this.factory = factory;
+			this.pool = pool;
 		}
 
 		@Override
 		public E createExecutor(ThreadFactory factory) {
-			E executor = this.factory.createExecutor(factory);
+			E executor = this.pool.register(this.factory.createExecutor(factory));
+			ThreadPool pool = this.pool;
 			this.tasks.add(new Runnable() {
 				private final Duration timeout = TransactionConfiguration.CACHE_STOP_TIMEOUT.getDefaultValue().toDuration();
 
@@ -358,6 +743,8 @@ public class InfinispanManager extends AbstractManager {
 						executor.awaitTermination(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
 					} catch (InterruptedException e) {
 						Thread.currentThread().interrupt();
+					} finally {
+						pool.unregister();
 					}
 				}
 			});
@@ -377,8 +764,8 @@ public class InfinispanManager extends AbstractManager {
 
 	private static class SimpleNonBlockingThreadPoolExecutorFactory<E extends ExecutorService> extends SimpleThreadPoolExecutorFactory<E> {
 
-		SimpleNonBlockingThreadPoolExecutorFactory(ThreadPoolExecutorFactory<E> factory) {
-			super(factory);
+		SimpleNonBlockingThreadPoolExecutorFactory(ThreadPoolExecutorFactory<E> factory, ThreadPool pool) {
+			super(factory, pool);
 		}
 
 		@Override